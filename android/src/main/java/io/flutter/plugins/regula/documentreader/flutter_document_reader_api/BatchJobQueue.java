@@ -0,0 +1,206 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.os.SystemClock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+// Recognition jobs stored as files, so queued work and finished results survive process death.
+// Jobs run one after another in the order they were enqueued, the runner does the actual recognition.
+// Reading, running and finishing jobs happens on the executor, the lock only guards picking the next job
+// and the bookkeeping, so list and remove callers never wait on a job.
+class BatchJobQueue {
+    private static final String JOB = ".job.json";
+    private static final String RESULT = ".result.json";
+
+    interface Runner {
+        void run(String id, JSONObject job, JobCompletion completion) throws Exception;
+    }
+
+    interface JobCompletion {
+        void finish(JSONObject completion);
+
+        void fail(Exception e);
+    }
+
+    interface Listener {
+        void onJobFinished(JSONObject event);
+    }
+
+    private final File directory;
+    private final Executor executor;
+    private final Runner runner;
+    private final Listener listener;
+    private boolean running = false;
+    private String currentJob;
+    private long startTime;
+    private int finishedJobs;
+    private long lastEnqueueTime;
+
+    BatchJobQueue(File directory, Executor executor, Runner runner, Listener listener) {
+        this.directory = directory;
+        this.executor = executor;
+        this.runner = runner;
+        this.listener = listener;
+    }
+
+    // Ids start with the enqueue time, so sorting them by name keeps the queue order.
+    // The time is bumped for jobs enqueued within the same millisecond, the random part doesn't sort.
+    synchronized String enqueue(JSONObject job) throws IOException {
+        lastEnqueueTime = Math.max(System.currentTimeMillis(), lastEnqueueTime + 1);
+        String id = String.format(Locale.ROOT, "%013d", lastEnqueueTime) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        write(new File(directory, id + JOB), job.toString());
+        return id;
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        startTime = SystemClock.elapsedRealtime();
+        finishedJobs = 0;
+        // A job still running from before a stop picks up the queue again when it finishes.
+        if (currentJob == null)
+            executor.execute(this::runNext);
+    }
+
+    synchronized void stop() {
+        running = false;
+    }
+
+    synchronized String result(String id) throws IOException {
+        File file = new File(directory, id + RESULT);
+        return file.exists() ? read(file) : null;
+    }
+
+    synchronized JSONObject list() throws JSONException {
+        JSONObject result = new JSONObject();
+        result.put("running", running);
+        result.put("current", currentJob);
+        result.put("pending", new JSONArray(ids(JOB)));
+        result.put("finished", new JSONArray(ids(RESULT)));
+        return result;
+    }
+
+    synchronized boolean remove(String id) {
+        if (id.equals(currentJob)) return false;
+        boolean job = new File(directory, id + JOB).delete();
+        boolean result = new File(directory, id + RESULT).delete();
+        return job || result;
+    }
+
+    private synchronized String next() {
+        List<String> pending = ids(JOB);
+        if (!running || pending.isEmpty()) {
+            running = false;
+            currentJob = null;
+            return null;
+        }
+        currentJob = pending.get(0);
+        return currentJob;
+    }
+
+    private void runNext() {
+        String id = next();
+        if (id == null) return;
+        long jobStartTime = SystemClock.elapsedRealtime();
+        try {
+            JSONObject job = new JSONObject(read(new File(directory, id + JOB)));
+            runner.run(id, job, new JobCompletion() {
+                @Override
+                public void finish(JSONObject completion) {
+                    executor.execute(() -> BatchJobQueue.this.finish(id, jobStartTime, completion, null));
+                }
+
+                @Override
+                public void fail(Exception e) {
+                    e.printStackTrace();
+                    executor.execute(() -> BatchJobQueue.this.finish(id, jobStartTime, null, e.toString()));
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            finish(id, jobStartTime, null, e.toString());
+        }
+    }
+
+    private void finish(String id, long jobStartTime, JSONObject completion, String error) {
+        JSONObject event = finished(id, jobStartTime, completion, error);
+        listener.onJobFinished(event);
+        executor.execute(this::runNext);
+    }
+
+    private synchronized JSONObject finished(String id, long jobStartTime, JSONObject completion, String error) {
+        long now = SystemClock.elapsedRealtime();
+        finishedJobs++;
+        JSONObject event = new JSONObject();
+        try {
+            JSONObject result = new JSONObject();
+            result.put("jobId", id);
+            result.put("completion", completion);
+            result.put("error", error);
+            result.put("elapsedTime", now - jobStartTime);
+            write(new File(directory, id + RESULT), result.toString());
+            new File(directory, id + JOB).delete();
+
+            event.put("jobId", id);
+            event.put("success", error == null);
+            event.put("elapsedTime", now - jobStartTime);
+            event.put("finishedJobs", finishedJobs);
+            event.put("pendingJobs", ids(JOB).size());
+            event.put("jobsPerMinute", finishedJobs * 60000.0 / Math.max(1, now - startTime));
+        } catch (JSONException | IOException e) {
+            e.printStackTrace();
+        }
+        currentJob = null;
+        return event;
+    }
+
+    private List<String> ids(String suffix) {
+        List<String> result = new ArrayList<>();
+        String[] names = directory.list();
+        if (names == null) return result;
+        Arrays.sort(names);
+        for (String name : names)
+            if (name.endsWith(suffix))
+                result.add(name.substring(0, name.length() - suffix.length()));
+        return result;
+    }
+
+    private void write(File file, String content) throws IOException {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException("can't create " + directory);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp)) {
+            stream.write(content.getBytes(StandardCharsets.UTF_8));
+            stream.getFD().sync();
+        }
+        if (!temp.renameTo(file))
+            throw new IOException("can't write " + file);
+    }
+
+    private static String read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (FileInputStream stream = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int count = stream.read(bytes, offset, bytes.length - offset);
+                if (count < 0) break;
+                offset += count;
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
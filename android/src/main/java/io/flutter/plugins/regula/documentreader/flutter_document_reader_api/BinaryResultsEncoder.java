@@ -0,0 +1,1043 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.content.Context;
+import android.graphics.Rect;
+
+import com.regula.documentreader.api.enums.DocReaderAction;
+import com.regula.documentreader.api.enums.PDF417Info;
+import com.regula.documentreader.api.enums.eGraphicFieldType;
+import com.regula.documentreader.api.enums.eRPRM_Lights;
+import com.regula.documentreader.api.errors.DocumentReaderException;
+import com.regula.documentreader.api.results.BytesData;
+import com.regula.documentreader.api.results.Coordinate;
+import com.regula.documentreader.api.results.DocReaderFieldRect;
+import com.regula.documentreader.api.results.DocumentReaderBarcodeField;
+import com.regula.documentreader.api.results.DocumentReaderBarcodeResult;
+import com.regula.documentreader.api.results.DocumentReaderDocumentType;
+import com.regula.documentreader.api.results.DocumentReaderGraphicField;
+import com.regula.documentreader.api.results.DocumentReaderGraphicResult;
+import com.regula.documentreader.api.results.DocumentReaderNotification;
+import com.regula.documentreader.api.results.DocumentReaderResults;
+import com.regula.documentreader.api.results.DocumentReaderResultsStatus;
+import com.regula.documentreader.api.results.DocumentReaderTextField;
+import com.regula.documentreader.api.results.DocumentReaderTextResult;
+import com.regula.documentreader.api.results.DocumentReaderValue;
+import com.regula.documentreader.api.results.ElementPosition;
+import com.regula.documentreader.api.results.ImageQuality;
+import com.regula.documentreader.api.results.ImageQualityGroup;
+import com.regula.documentreader.api.results.VDSNCData;
+import com.regula.documentreader.api.results.authenticity.DocumentReaderAuthenticityCheck;
+import com.regula.documentreader.api.results.authenticity.DocumentReaderAuthenticityElement;
+import com.regula.documentreader.api.results.authenticity.DocumentReaderAuthenticityResult;
+import com.regula.documentreader.api.results.rfid.AccessControlProcedureType;
+import com.regula.documentreader.api.results.rfid.Application;
+import com.regula.documentreader.api.results.rfid.Attribute;
+import com.regula.documentreader.api.results.rfid.Authority;
+import com.regula.documentreader.api.results.rfid.CardProperties;
+import com.regula.documentreader.api.results.rfid.CertificateChain;
+import com.regula.documentreader.api.results.rfid.CertificateData;
+import com.regula.documentreader.api.results.rfid.Extension;
+import com.regula.documentreader.api.results.rfid.File;
+import com.regula.documentreader.api.results.rfid.FileData;
+import com.regula.documentreader.api.results.rfid.RFIDSessionData;
+import com.regula.documentreader.api.results.rfid.RFIDSessionDataStatus;
+import com.regula.documentreader.api.results.rfid.SecurityObject;
+import com.regula.documentreader.api.results.rfid.SecurityObjectCertificates;
+import com.regula.documentreader.api.results.rfid.SignerInfo;
+import com.regula.documentreader.api.results.rfid.Validity;
+import com.regula.documentreader.api.results.rfid.Value;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Tagged little-endian layout read by BinaryResultsDecoder in document_reader.dart. Lists and maps
+// are prefixed with their byte length and item count so the dart side can skip undecoded subtrees.
+// Every writer mirrors the keys of its JSONConstructor.generate* counterpart, the json fromJson
+// constructors read both formats.
+@SuppressWarnings({"ConstantConditions", "unused", "RedundantSuppression"})
+class BinaryResultsEncoder {
+    static final byte VERSION = 1;
+
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte DOUBLE = 5;
+    static final byte STRING = 6;
+    static final byte BYTES = 7;
+    static final byte LIST = 8;
+    static final byte MAP = 9;
+
+    private static final int MAX_DEPTH = 64;
+
+    private byte[] buffer;
+    private int position = 0;
+    private final int[] containerStart = new int[MAX_DEPTH];
+    private final int[] containerCount = new int[MAX_DEPTH];
+    private int depth = 0;
+
+    BinaryResultsEncoder() {
+        this(16 * 1024);
+    }
+
+    BinaryResultsEncoder(int initialCapacity) {
+        buffer = new byte[initialCapacity];
+        writeByte(VERSION);
+    }
+
+    static byte[] encodeCompletion(int action, DocumentReaderResults results, DocumentReaderException error, Context context, ResultsParams params) {
+        BinaryResultsEncoder encoder = new BinaryResultsEncoder();
+        encoder.beginMap();
+        encoder.key("action").value(action);
+        if (params.delta)
+            encoder.key("delta").value(true);
+        if (params.requestId != null)
+            encoder.key("requestId").value(params.requestId);
+        switch (action) {
+            case DocReaderAction.PROCESS:
+            case DocReaderAction.PROCESS_WHITE_UV_IMAGES:
+                break;
+            case DocReaderAction.NOTIFICATION:
+                encoder.key("results");
+                encoder.beginMap();
+                if (results != null && results.documentReaderNotification != null) {
+                    encoder.key("documentReaderNotification");
+                    encoder.writeDocumentReaderNotification(results.documentReaderNotification);
+                }
+                encoder.endMap();
+                break;
+            case DocReaderAction.COMPLETE:
+            case DocReaderAction.MORE_PAGES_AVAILABLE:
+            case DocReaderAction.CANCEL:
+            case DocReaderAction.ERROR:
+                encoder.key("results");
+                encoder.writeDocumentReaderResults(results, context, params);
+                break;
+        }
+        if (error != null) {
+            encoder.key("error");
+            encoder.writeDocumentReaderException(error);
+        }
+        encoder.endMap();
+
+        return encoder.toByteArray();
+    }
+
+    byte[] toByteArray() {
+        if (depth != 0) throw new IllegalStateException("unclosed container");
+        return Arrays.copyOf(buffer, position);
+    }
+
+    // Results
+
+    void writeDocumentReaderResults(DocumentReaderResults input, Context context, ResultsParams params) {
+        beginMap();
+        if (input == null) {
+            endMap();
+            return;
+        }
+        ResultProjection projection = params.projection;
+        if (projection.has("chipPage"))
+            key("chipPage").value(input.chipPage);
+        if (projection.has("overallResult"))
+            key("overallResult").value(input.getOverallResult());
+        if (projection.has("processingFinishedStatus"))
+            key("processingFinishedStatus").value(input.processingFinishedStatus);
+        if (projection.has("elapsedTime"))
+            key("elapsedTime").value(input.elapsedTime);
+        if (projection.has("elapsedTimeRFID"))
+            key("elapsedTimeRFID").value(input.elapsedTimeRFID);
+        if (projection.has("morePagesAvailable"))
+            key("morePagesAvailable").value(input.morePagesAvailable);
+        if (projection.has("rfidResult"))
+            key("rfidResult").value(input.rfidResult);
+        if (projection.has("highResolution"))
+            key("highResolution").value(input.highResolution);
+        if (projection.has("graphicResult")) {
+            key("graphicResult");
+            writeDocumentReaderGraphicResult(params.graphicResult(input), context, params.images);
+        }
+        if (projection.has("textResult")) {
+            key("textResult");
+            writeDocumentReaderTextResult(params.textResult(input), context);
+        }
+        if (projection.has("documentPosition")) {
+            key("documentPosition");
+            writeList(input.documentPosition, this::writeElementPosition);
+        }
+        if (projection.has("barcodePosition")) {
+            key("barcodePosition");
+            writeList(input.barcodePosition, this::writeElementPosition);
+        }
+        if (projection.has("mrzPosition")) {
+            key("mrzPosition");
+            writeList(input.mrzPosition, this::writeElementPosition);
+        }
+        if (projection.has("imageQuality")) {
+            key("imageQuality");
+            writeList(input.imageQuality, this::writeImageQualityGroup);
+        }
+        if (projection.has("rawResult"))
+            key("rawResult").value(input.rawResult);
+        if (projection.has("documentReaderNotification")) {
+            key("documentReaderNotification");
+            writeDocumentReaderNotification(input.documentReaderNotification);
+        }
+        if (projection.has("rfidSessionData")) {
+            key("rfidSessionData");
+            writeRFIDSessionData(params.rfidSessionData(input));
+        }
+        if (projection.has("authenticityResult")) {
+            key("authenticityResult");
+            writeDocumentReaderAuthenticityResult(input.authenticityResult, context);
+        }
+        if (projection.has("barcodeResult")) {
+            key("barcodeResult");
+            writeDocumentReaderBarcodeResult(input.barcodeResult);
+        }
+        if (projection.has("documentType")) {
+            key("documentType");
+            writeList(input.documentType, this::writeDocumentReaderDocumentType);
+        }
+        if (projection.has("status")) {
+            key("status");
+            writeDocumentReaderResultsStatus(input.status);
+        }
+        if (projection.has("vdsncData")) {
+            key("vdsncData");
+            writeVDSNCData(input.vdsncData);
+        }
+        endMap();
+    }
+
+    void writeDocumentReaderGraphicResult(DocumentReaderGraphicResult input, Context context, GraphicImages images) {
+        beginMap();
+        if (input != null) {
+            key("fields");
+            beginList();
+            if (input.fields != null)
+                for (DocumentReaderGraphicField field : input.fields)
+                    if (field != null)
+                        writeDocumentReaderGraphicField(field, context, images);
+            endList();
+        }
+        endMap();
+    }
+
+    void writeDocumentReaderGraphicField(DocumentReaderGraphicField input, Context context, GraphicImages images) {
+        beginMap();
+        key("sourceType").value(input.sourceType);
+        key("fieldType").value(input.fieldType);
+        key("lightType").value(input.light);
+        key("pageIndex").value(input.pageIndex);
+        key("fieldName").value(eGraphicFieldType.getTranslation(context, input.fieldType));
+        key("lightName").value(eRPRM_Lights.getTranslation(context, input.light));
+        if (images != null)
+            images.write(this, input);
+        else
+            key("value").value(input.imageBase64());
+        key("fieldRect");
+        writeDocReaderFieldRect(input.boundRect);
+        endMap();
+    }
+
+    void writeDocReaderFieldRect(DocReaderFieldRect input) {
+        beginMap();
+        if (input != null) {
+            key("bottom").value(input.bottom);
+            key("top").value(input.top);
+            key("left").value(input.left);
+            key("right").value(input.right);
+        }
+        endMap();
+    }
+
+    void writeDocumentReaderTextResult(DocumentReaderTextResult input, Context context) {
+        beginMap();
+        if (input != null) {
+            key("status").value(input.status);
+            key("fields");
+            beginList();
+            if (input.fields != null)
+                for (DocumentReaderTextField field : input.fields)
+                    if (field != null)
+                        writeDocumentReaderTextField(field, context);
+            endList();
+        }
+        endMap();
+    }
+
+    void writeDocumentReaderTextField(DocumentReaderTextField input, Context context) {
+        beginMap();
+        key("fieldType").value(input.fieldType);
+        key("lcid").value(input.lcid);
+        key("status").value(input.status);
+        key("lcidName").value(input.getLcidName(context));
+        key("fieldName").value(input.getFieldName(context));
+        key("value");
+        writeDocumentReaderValue(input.value());
+        key("values");
+        writeDocumentReaderValues(input.values);
+        endMap();
+    }
+
+    void writeDocumentReaderValues(List<DocumentReaderValue> values) {
+        beginList();
+        if (values != null)
+            for (DocumentReaderValue value : values)
+                if (value != null)
+                    writeDocumentReaderValue(value);
+        endList();
+    }
+
+    void writeDocumentReaderValue(DocumentReaderValue input) {
+        beginMap();
+        if (input != null) {
+            key("pageIndex").value(input.pageIndex);
+            key("sourceType").value(input.sourceType);
+            key("validity").value(input.validity);
+            key("probability").value(input.probability);
+            key("value").value(input.value);
+            key("originalValue").value(input.originalValue);
+            key("boundRect");
+            writeRect(input.boundRect);
+            key("comparison");
+            beginMap();
+            if (input.comparison != null)
+                for (Map.Entry<?, ?> entry : input.comparison.entrySet())
+                    if (entry != null)
+                        key(entry.getKey().toString()).jsonValue(entry.getValue());
+            endMap();
+        }
+        endMap();
+    }
+
+    void writeRect(Rect input) {
+        beginMap();
+        if (input != null) {
+            key("bottom").value(input.bottom);
+            key("top").value(input.top);
+            key("left").value(input.left);
+            key("right").value(input.right);
+        }
+        endMap();
+    }
+
+    void writeCoordinate(Coordinate input) {
+        beginMap();
+        if (input != null) {
+            key("x").value(input.x);
+            key("y").value(input.y);
+        }
+        endMap();
+    }
+
+    void writeElementPosition(ElementPosition input) {
+        beginMap();
+        key("docFormat").value(input.docFormat);
+        key("width").value(input.width);
+        key("height").value(input.height);
+        key("dpi").value(input.dpi);
+        key("pageIndex").value(input.pageIndex);
+        key("inverse").value(input.inverse);
+        key("perspectiveTr").value(input.perspectiveTr);
+        key("objArea").value(input.objArea);
+        key("objIntAngleDev").value(input.objIntAngleDev);
+        key("resultStatus").value(input.resultStatus);
+        key("angle").value(input.angle);
+        key("center");
+        writeCoordinate(input.center);
+        key("leftTop");
+        writeCoordinate(input.leftTop);
+        key("leftBottom");
+        writeCoordinate(input.leftBottom);
+        key("rightTop");
+        writeCoordinate(input.rightTop);
+        key("rightBottom");
+        writeCoordinate(input.rightBottom);
+        endMap();
+    }
+
+    void writeImageQuality(ImageQuality input) {
+        beginMap();
+        key("featureType").value(input.featureType);
+        key("result").value(input.result);
+        key("type").value(input.type);
+        endMap();
+    }
+
+    void writeImageQualityGroup(ImageQualityGroup input) {
+        beginMap();
+        key("count").value(input.count);
+        key("result").value(input.result);
+        key("imageQualityList");
+        writeList(input.imageQualityList, this::writeImageQuality);
+        key("pageIndex").value(input.pageIndex);
+        endMap();
+    }
+
+    void writeDocumentReaderDocumentType(DocumentReaderDocumentType input) {
+        beginMap();
+        key("pageIndex").value(input.pageIndex);
+        key("documentID").value(input.documentID);
+        key("dType").value(input.dType);
+        key("dFormat").value(input.dFormat);
+        key("dMRZ").value(input.dMRZ);
+        key("name").value(input.name);
+        key("ICAOCode").value(input.ICAOCode);
+        key("dDescription").value(input.dDescription);
+        key("dYear").value(input.dYear);
+        key("dCountryName").value(input.dCountryName);
+        key("FDSID");
+        writeIntArray(input.FDSID);
+        endMap();
+    }
+
+    void writeDocumentReaderNotification(DocumentReaderNotification input) {
+        beginMap();
+        if (input != null) {
+            key("code").value(input.getNotificationCode());
+            key("attachment").value(input.getDataFileType());
+            key("value").value(input.getProgress());
+        }
+        endMap();
+    }
+
+    // RFID
+
+    void writeAccessControlProcedureType(AccessControlProcedureType input) {
+        beginMap();
+        key("activeOptionIdx").value(input.activeOptionIdx);
+        key("type").value(input.type);
+        key("status").value(input.status);
+        key("notifications");
+        writeValues(input.notifications);
+        endMap();
+    }
+
+    void writeFileData(FileData input) {
+        beginMap();
+        if (input != null) {
+            key("length").value(input.length);
+            key("type").value(input.type);
+            key("status").value(input.status);
+            key("data").value(input.data);
+        }
+        endMap();
+    }
+
+    void writeCertificateData(CertificateData input) {
+        beginMap();
+        if (input != null) {
+            key("length").value(input.length);
+            key("data").value(input.data);
+        }
+        endMap();
+    }
+
+    void writeSecurityObjectCertificates(SecurityObjectCertificates input) {
+        beginMap();
+        if (input != null) {
+            key("securityObject");
+            writeCertificateData(input.securityObject);
+        }
+        endMap();
+    }
+
+    void writeFile(File input) {
+        beginMap();
+        key("readingTime").value(input.readingTime);
+        key("type").value(input.type);
+        key("pAStatus").value(input.pAStatus);
+        key("readingStatus").value(input.readingStatus);
+        key("fileID").value(input.fileID);
+        key("fileData");
+        writeFileData(input.fileData);
+        key("certificates");
+        writeSecurityObjectCertificates(input.certificates);
+        key("docFieldsText");
+        writeValues(input.docFieldsText);
+        key("docFieldsGraphics");
+        writeValues(input.docFieldsGraphics);
+        key("docFieldsOriginals");
+        writeValues(input.docFieldsOriginals);
+        key("notifications");
+        writeValues(input.notifications);
+        endMap();
+    }
+
+    void writeApplication(Application input) {
+        beginMap();
+        key("type").value(input.type);
+        key("status").value(input.status);
+        key("applicationID").value(input.applicationID);
+        key("dataHashAlgorithm").value(input.dataHashAlgorithm);
+        key("unicodeVersion").value(input.unicodeVersion);
+        key("version").value(input.version);
+        key("files");
+        writeList(input.files, this::writeFile);
+        endMap();
+    }
+
+    void writeValue(Value input) {
+        beginMap();
+        if (input != null) {
+            key("length").value(input.length);
+            key("type").value(input.type);
+            key("status").value(input.status);
+            key("data").value(input.data);
+            key("format").value(input.format);
+        }
+        endMap();
+    }
+
+    void writeAttribute(Attribute input) {
+        beginMap();
+        key("type").value(input.type);
+        key("value");
+        writeValue(input.value);
+        endMap();
+    }
+
+    void writeAuthority(Authority input) {
+        beginMap();
+        if (input != null) {
+            key("data").value(input.data);
+            key("friendlyName");
+            writeValue(input.friendlyName);
+            key("attributes");
+            writeList(input.attributes, this::writeAttribute);
+        }
+        endMap();
+    }
+
+    void writeExtension(Extension input) {
+        beginMap();
+        key("data").value(input.data);
+        key("type").value(input.type);
+        endMap();
+    }
+
+    void writeValidity(Validity input) {
+        beginMap();
+        if (input != null) {
+            key("notAfter");
+            writeValue(input.notAfter);
+            key("notBefore");
+            writeValue(input.notBefore);
+        }
+        endMap();
+    }
+
+    void writeCertificateChain(CertificateChain input) {
+        beginMap();
+        key("origin").value(input.origin);
+        key("type").value(input.type);
+        key("version").value(input.version);
+        key("paStatus").value(input.paStatus);
+        key("serialNumber").value(input.serialNumber);
+        key("signatureAlgorithm").value(input.signatureAlgorithm);
+        key("subjectPKAlgorithm").value(input.subjectPKAlgorithm);
+        key("fileName");
+        writeValue(input.fileName);
+        key("validity");
+        writeValidity(input.validity);
+        key("issuer");
+        writeAuthority(input.issuer);
+        key("subject");
+        writeAuthority(input.subject);
+        key("notifications");
+        writeValues(input.notifications);
+        key("extensions");
+        writeList(input.extensions, this::writeExtension);
+        endMap();
+    }
+
+    void writeSignerInfo(SignerInfo input) {
+        beginMap();
+        key("version").value(input.version);
+        key("paStatus").value(input.paStatus);
+        key("dataToHash").value(input.dataToHash);
+        key("digestAlgorithm").value(input.digestAlgorithm);
+        key("signatureAlgorithm").value(input.signatureAlgorithm);
+        key("serialNumber");
+        writeValue(input.serialNumber);
+        key("signature");
+        writeValue(input.signature);
+        key("subjectKeyIdentifier");
+        writeValue(input.subjectKeyIdentifier);
+        key("issuer");
+        writeAuthority(input.issuer);
+        key("notifications");
+        writeValues(input.notifications);
+        key("signedAttributes");
+        writeList(input.signedAttributes, this::writeExtension);
+        key("certificateChain");
+        writeList(input.certificateChain, this::writeCertificateChain);
+        endMap();
+    }
+
+    void writeSecurityObject(SecurityObject input) {
+        beginMap();
+        key("fileReference").value(input.fileReference);
+        key("version").value(input.version);
+        key("objectType").value(input.objectType);
+        key("notifications");
+        writeValues(input.notifications);
+        key("signerInfos");
+        writeList(input.signerInfos, this::writeSignerInfo);
+        endMap();
+    }
+
+    void writeCardProperties(CardProperties input) {
+        beginMap();
+        if (input != null) {
+            key("aTQA").value(input.aTQA);
+            key("bitRateR").value(input.bitRateR);
+            key("bitRateS").value(input.bitRateS);
+            key("chipTypeA").value(input.chipTypeA);
+            key("mifareMemory").value(input.mifareMemory);
+            key("rfidType").value(input.rfidType);
+            key("sAK").value(input.sAK);
+            key("support4").value(input.support4);
+            key("supportMifare").value(input.supportMifare);
+            key("aTQB").value(input.aTQB);
+            key("aTR").value(input.aTR);
+            key("baudrate1").value(input.baudrate1);
+            key("baudrate2").value(input.baudrate2);
+            key("uID").value(input.uID);
+        }
+        endMap();
+    }
+
+    void writeRFIDSessionDataStatus(RFIDSessionDataStatus input) {
+        beginMap();
+        if (input != null) {
+            key("AA").value(input.AA);
+            key("BAC").value(input.BAC);
+            key("CA").value(input.CA);
+            key("PA").value(input.PA);
+            key("PACE").value(input.PACE);
+            key("TA").value(input.TA);
+            key("overallStatus").value(input.overallStatus);
+        }
+        endMap();
+    }
+
+    void writeRFIDSessionData(RFIDSessionData input) {
+        beginMap();
+        if (input != null) {
+            key("totalBytesReceived").value(input.totalBytesReceived);
+            key("totalBytesSent").value(input.totalBytesSent);
+            key("status").value(input.status);
+            key("extLeSupport").value(input.extLeSupport);
+            key("processTime").value(input.processTime);
+            key("cardProperties");
+            writeCardProperties(input.cardProperties);
+            key("sessionDataStatus");
+            writeRFIDSessionDataStatus(input.sessionDataStatus);
+            key("accessControls");
+            writeList(input.accessControls, this::writeAccessControlProcedureType);
+            key("applications");
+            writeList(input.applications, this::writeApplication);
+            key("securityObjects");
+            writeList(input.securityObjects, this::writeSecurityObject);
+        }
+        endMap();
+    }
+
+    // Authenticity and barcodes
+
+    void writeDocumentReaderAuthenticityResult(DocumentReaderAuthenticityResult input, Context context) {
+        beginMap();
+        if (input != null) {
+            key("status").value(input.getStatus());
+            key("checks");
+            writeList(input.checks, check -> writeDocumentReaderAuthenticityCheck(check, context));
+        }
+        endMap();
+    }
+
+    void writeDocumentReaderAuthenticityCheck(DocumentReaderAuthenticityCheck input, Context context) {
+        beginMap();
+        key("type").value(input.type);
+        key("status").value(input.getStatus());
+        key("typeName").value(input.getTypeName(context));
+        key("pageIndex").value(input.pageIndex);
+        key("elements");
+        writeList(input.elements, element -> writeDocumentReaderAuthenticityElement(element, context));
+        endMap();
+    }
+
+    void writeDocumentReaderAuthenticityElement(DocumentReaderAuthenticityElement input, Context context) {
+        beginMap();
+        key("status").value(input.status);
+        key("elementType").value(input.elementType);
+        key("elementDiagnose").value(input.elementDiagnose);
+        key("elementTypeName").value(input.getElementTypeName(context));
+        key("elementDiagnoseName").value(input.getElementDiagnoseName(context));
+        endMap();
+    }
+
+    void writeDocumentReaderBarcodeResult(DocumentReaderBarcodeResult input) {
+        beginMap();
+        if (input != null) {
+            key("fields");
+            writeList(input.fields, this::writeDocumentReaderBarcodeField);
+        }
+        endMap();
+    }
+
+    void writeDocumentReaderBarcodeField(DocumentReaderBarcodeField input) {
+        beginMap();
+        key("barcodeType").value(input.barcodeType);
+        key("status").value(input.status);
+        key("pageIndex").value(input.pageIndex);
+        key("pdf417Info");
+        writePDF417Info(input.pdf417Info);
+        // a list of signed bytes like JSONConstructor.generateByteArray, BYTES would change the dart type
+        key("data");
+        beginList();
+        if (input.data != null)
+            for (byte b : input.data)
+                value(b);
+        endList();
+        endMap();
+    }
+
+    void writePDF417Info(PDF417Info input) {
+        beginMap();
+        if (input != null) {
+            key("errorLevel").value(input.errorLevel);
+            key("columns").value(input.columns);
+            key("rows").value(input.rows);
+        }
+        endMap();
+    }
+
+    // Status
+
+    void writeDocumentReaderResultsStatus(DocumentReaderResultsStatus input) {
+        beginMap();
+        if (input != null) {
+            key("overallStatus").value(input.getOverallStatus());
+            key("optical").value(input.getOptical());
+            key("detailsOptical");
+            writeDetailsOptical(input.getDetailsOptical());
+            key("rfid").value(input.getRfid());
+            key("detailsRFID");
+            writeDetailsRFID(input.getDetailsRFID());
+            key("portrait").value(input.getPortrait());
+            key("stopList").value(input.getStopList());
+        }
+        endMap();
+    }
+
+    void writeDetailsOptical(DocumentReaderResultsStatus.DetailsOptical input) {
+        beginMap();
+        if (input != null) {
+            key("overallStatus").value(input.getOverallStatus());
+            key("mrz").value(input.getMrz());
+            key("text").value(input.getText());
+            key("docType").value(input.getDocType());
+            key("security").value(input.getSecurity());
+            key("imageQA").value(input.getImageQA());
+            key("expiry").value(input.getExpiry());
+            key("vds").value(input.getVds());
+            key("pagesCount").value(input.getPagesCount());
+        }
+        endMap();
+    }
+
+    void writeDetailsRFID(DocumentReaderResultsStatus.DetailsRFID input) {
+        beginMap();
+        if (input != null) {
+            key("pa").value(input.getPA());
+            key("ca").value(input.getCA());
+            key("aa").value(input.getAA());
+            key("ta").value(input.getTA());
+            key("bac").value(input.getBAC());
+            key("pace").value(input.getPACE());
+            key("overallStatus").value(input.getOverallStatus());
+        }
+        endMap();
+    }
+
+    void writeVDSNCData(VDSNCData input) {
+        beginMap();
+        if (input != null) {
+            key("type").value(input.getType());
+            key("version").value(input.getVersion());
+            key("issuingCountry").value(input.getIssuingCountry());
+            // the message is already a JSONObject in the sdk
+            key("message").jsonValue(input.getMessage());
+            key("signatureAlgorithm").value(input.getSignatureAlg());
+            key("signature");
+            writeBytesData(input.getSignature());
+            key("certificate");
+            writeBytesData(input.getCertificate());
+            key("certificateChain");
+            writeList(input.getCertificateChain(), this::writeCertificateChain);
+            key("notifications");
+            beginList();
+            if (input.getNotifications() != null)
+                for (long notification : input.getNotifications())
+                    value(notification);
+            endList();
+        }
+        endMap();
+    }
+
+    void writeBytesData(BytesData input) {
+        beginMap();
+        if (input != null) {
+            key("data").value(input.getData());
+            key("length").value(input.getLength());
+            key("status").value(input.getStatus());
+            key("type").value(input.getType());
+        }
+        endMap();
+    }
+
+    // Errors
+
+    void writeDocumentReaderException(DocumentReaderException input) {
+        beginMap();
+        key("errorCode").value(input.getErrorCode());
+        key("localizedMessage").value(input.getLocalizedMessage());
+        key("message").value(input.getMessage());
+        key("string").value(input.toString());
+        key("stackTrace");
+        beginList();
+        for (StackTraceElement element : input.getStackTrace())
+            writeStackTraceElement(element);
+        endList();
+        endMap();
+    }
+
+    void writeStackTraceElement(StackTraceElement input) {
+        beginMap();
+        if (input != null) {
+            key("lineNumber").value(input.getLineNumber());
+            key("isNativeMethod").value(input.isNativeMethod());
+            key("className").value(input.getClassName());
+            key("fileName").value(input.getFileName());
+            key("methodName").value(input.getMethodName());
+            key("string").value(input.toString());
+        }
+        endMap();
+    }
+
+    // Collections, null items are skipped like in JSONConstructor.generateList
+
+    interface Writer<T> {
+        void write(T input);
+    }
+
+    <T> void writeList(List<T> list, Writer<T> writer) {
+        beginList();
+        if (list != null)
+            for (T item : list)
+                if (item != null)
+                    writer.write(item);
+        endList();
+    }
+
+    void writeValues(List<?> list) {
+        beginList();
+        if (list != null)
+            for (Object item : list)
+                if (item != null)
+                    jsonValue(item);
+        endList();
+    }
+
+    void writeIntArray(int[] array) {
+        beginList();
+        if (array != null)
+            for (int item : array)
+                value(item);
+        endList();
+    }
+
+    // Primitives
+
+    BinaryResultsEncoder key(String key) {
+        if (depth == 0) throw new IllegalStateException("key outside of a map");
+        containerCount[depth - 1]++;
+        writeUtf8(key);
+        return this;
+    }
+
+    void beginMap() {
+        beginContainer(MAP);
+    }
+
+    void endMap() {
+        endContainer();
+    }
+
+    void beginList() {
+        beginContainer(LIST);
+    }
+
+    void endList() {
+        endContainer();
+    }
+
+    void nullValue() {
+        countListItem();
+        writeByte(NULL);
+    }
+
+    void value(boolean value) {
+        countListItem();
+        writeByte(value ? TRUE : FALSE);
+    }
+
+    void value(int value) {
+        countListItem();
+        writeByte(INT);
+        writeInt(value);
+    }
+
+    void value(long value) {
+        countListItem();
+        writeByte(LONG);
+        writeLong(value);
+    }
+
+    void value(double value) {
+        countListItem();
+        writeByte(DOUBLE);
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    void value(String value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        countListItem();
+        writeByte(STRING);
+        writeUtf8(value);
+    }
+
+    void value(byte[] value) {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        countListItem();
+        writeByte(BYTES);
+        writeInt(value.length);
+        writeBytes(value, 0, value.length);
+    }
+
+    void jsonValue(Object value) {
+        if (value == null || value == JSONObject.NULL)
+            nullValue();
+        else if (value instanceof Boolean)
+            value((boolean) (Boolean) value);
+        else if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            value(((Number) value).intValue());
+        else if (value instanceof Long)
+            value((long) (Long) value);
+        else if (value instanceof Number)
+            value(((Number) value).doubleValue());
+        else if (value instanceof String)
+            value((String) value);
+        else if (value instanceof byte[])
+            value((byte[]) value);
+        else if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            beginMap();
+            for (Iterator<String> keys = object.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                key(key).jsonValue(object.opt(key));
+            }
+            endMap();
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            beginList();
+            for (int i = 0; i < array.length(); i++)
+                jsonValue(array.opt(i));
+            endList();
+        } else
+            value(String.valueOf(value));
+    }
+
+    private void beginContainer(byte tag) {
+        if (depth == MAX_DEPTH) throw new IllegalStateException("results are nested too deep");
+        countListItem();
+        writeByte(tag);
+        containerStart[depth] = position;
+        containerCount[depth] = 0;
+        depth++;
+        // byte length and item count, patched in endContainer
+        ensureCapacity(8);
+        position += 8;
+    }
+
+    private void endContainer() {
+        depth--;
+        int start = containerStart[depth];
+        putInt(start, position - start - 8);
+        putInt(start + 4, containerCount[depth]);
+    }
+
+    private void countListItem() {
+        if (depth > 0 && buffer[containerStart[depth - 1] - 1] == LIST)
+            containerCount[depth - 1]++;
+    }
+
+    private void writeUtf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        putInt(position, value);
+        position += 4;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) value);
+        writeInt((int) (value >>> 32));
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void putInt(int at, int value) {
+        buffer[at] = (byte) value;
+        buffer[at + 1] = (byte) (value >>> 8);
+        buffer[at + 2] = (byte) (value >>> 16);
+        buffer[at + 3] = (byte) (value >>> 24);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra <= buffer.length) return;
+        int capacity = buffer.length * 2;
+        while (capacity < position + extra)
+            capacity *= 2;
+        buffer = Arrays.copyOf(buffer, capacity);
+    }
+}
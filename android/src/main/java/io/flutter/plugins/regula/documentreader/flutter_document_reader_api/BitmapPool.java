@@ -0,0 +1,77 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// A few mutable bitmaps kept for inBitmap reuse, so batches of same-sized scans
+// decode into the memory of the previous ones. Each recognition decodes through its own Lease,
+// so only the bitmaps it decoded return to the pool when it completes.
+class BitmapPool {
+    private static final int MAX_BITMAPS = 4;
+
+    private final List<Bitmap> free = new ArrayList<>();
+
+    synchronized Bitmap acquire(Bitmap.Config config, long byteCount) {
+        for (Iterator<Bitmap> iterator = free.iterator(); iterator.hasNext(); ) {
+            Bitmap bitmap = iterator.next();
+            if (bitmap.getConfig() == config && bitmap.getAllocationByteCount() >= byteCount) {
+                iterator.remove();
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    Lease lease() {
+        return new Lease(this);
+    }
+
+    synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || free.contains(bitmap)) return;
+        if (free.size() >= MAX_BITMAPS)
+            free.remove(0).recycle();
+        free.add(bitmap);
+    }
+
+    synchronized void clear() {
+        for (Bitmap bitmap : free)
+            bitmap.recycle();
+        free.clear();
+    }
+
+    static class Lease {
+        private final BitmapPool pool;
+        private final List<Bitmap> inUse = new ArrayList<>();
+
+        private Lease(BitmapPool pool) {
+            this.pool = pool;
+        }
+
+        Bitmap acquire(Bitmap.Config config, long byteCount) {
+            return pool.acquire(config, byteCount);
+        }
+
+        // Returns a bitmap acquired but not decoded into.
+        void release(Bitmap bitmap) {
+            pool.release(bitmap);
+        }
+
+        synchronized void track(Bitmap bitmap) {
+            if (bitmap != null && bitmap.isMutable())
+                inUse.add(bitmap);
+        }
+
+        void releaseAll() {
+            List<Bitmap> bitmaps;
+            synchronized (this) {
+                bitmaps = new ArrayList<>(inUse);
+                inUse.clear();
+            }
+            for (Bitmap bitmap : bitmaps)
+                pool.release(bitmap);
+        }
+    }
+}
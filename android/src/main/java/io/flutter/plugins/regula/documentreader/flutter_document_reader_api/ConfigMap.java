@@ -0,0 +1,148 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Read access to a config map as decoded by the method channel codec, with the same getters as JSONObject.
+// Only the subtrees the sdk wants as org.json are converted, when they are read.
+class ConfigMap {
+    private final Map<String, ?> map;
+
+    ConfigMap(Map<String, ?> map) {
+        this.map = map;
+    }
+
+    static ConfigMap fromJSON(JSONObject input) throws JSONException {
+        Map<String, Object> result = new HashMap<>();
+        for (Iterator<String> keys = input.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            Object value = input.get(key);
+            result.put(key, fromJSONValue(value));
+        }
+        return new ConfigMap(result);
+    }
+
+    // Lists rather than JSONArray so that values compare by content in changedSince.
+    private static Object fromJSONValue(Object value) throws JSONException {
+        if (value instanceof JSONObject) return fromJSON((JSONObject) value).map;
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            List<Object> result = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++)
+                result.add(fromJSONValue(array.get(i)));
+            return result;
+        }
+        return value;
+    }
+
+    Map<String, ?> asMap() {
+        return map;
+    }
+
+    boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    // Entries whose values differ from the ones in applied. Keys of a group are set together, so once one of them
+    // changes the others come along, from this map or else from applied.
+    ConfigMap changedSince(Map<String, ?> applied, String[]... groups) {
+        Map<String, Object> changed = new HashMap<>();
+        for (Map.Entry<String, ?> entry : map.entrySet())
+            if (!applied.containsKey(entry.getKey()) || !Objects.equals(applied.get(entry.getKey()), entry.getValue()))
+                changed.put(entry.getKey(), entry.getValue());
+        for (String[] group : groups) {
+            boolean groupChanged = false;
+            for (String key : group)
+                groupChanged |= changed.containsKey(key);
+            if (!groupChanged) continue;
+            for (String key : group) {
+                Object value = map.containsKey(key) ? map.get(key) : applied.get(key);
+                if (value != null && !changed.containsKey(key))
+                    changed.put(key, value);
+            }
+        }
+        return new ConfigMap(changed);
+    }
+
+    boolean has(String key) {
+        return map.containsKey(key) && map.get(key) != null;
+    }
+
+    Object get(String key) throws JSONException {
+        Object value = map.get(key);
+        if (value == null) throw new JSONException("No value for " + key);
+        return value;
+    }
+
+    boolean getBoolean(String key) throws JSONException {
+        Object value = get(key);
+        if (value instanceof Boolean) return (Boolean) value;
+        if ("true".equalsIgnoreCase(value.toString())) return true;
+        if ("false".equalsIgnoreCase(value.toString())) return false;
+        throw new JSONException(key + " is not a boolean");
+    }
+
+    int getInt(String key) throws JSONException {
+        return (int) getDouble(key);
+    }
+
+    double getDouble(String key) throws JSONException {
+        Object value = get(key);
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new JSONException(key + " is not a number");
+        }
+    }
+
+    String getString(String key) throws JSONException {
+        return get(key).toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    ConfigMap getMap(String key) throws JSONException {
+        Object value = get(key);
+        if (value instanceof Map) return new ConfigMap((Map<String, ?>) value);
+        if (value instanceof JSONObject) return fromJSON((JSONObject) value);
+        throw new JSONException(key + " is not a map");
+    }
+
+    JSONObject getJSONObject(String key) throws JSONException {
+        Object value = get(key);
+        if (value instanceof JSONObject) return (JSONObject) value;
+        if (value instanceof Map) return (JSONObject) toJSON(value);
+        throw new JSONException(key + " is not a map");
+    }
+
+    JSONArray getJSONArray(String key) throws JSONException {
+        Object value = get(key);
+        if (value instanceof JSONArray) return (JSONArray) value;
+        if (value instanceof List) return (JSONArray) toJSON(value);
+        throw new JSONException(key + " is not a list");
+    }
+
+    private static Object toJSON(Object value) throws JSONException {
+        if (value instanceof Map) {
+            JSONObject result = new JSONObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                result.put(entry.getKey().toString(), toJSON(entry.getValue()));
+            return result;
+        }
+        if (value instanceof List) {
+            JSONArray result = new JSONArray();
+            for (Object item : (List<?>) value)
+                result.put(toJSON(item));
+            return result;
+        }
+        return value;
+    }
+}
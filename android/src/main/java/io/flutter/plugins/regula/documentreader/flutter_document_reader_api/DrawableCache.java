@@ -0,0 +1,156 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Customization images decoded and scaled for the screen density, keyed by a hash of
+// their base64 content so re-applying the same theme skips decoding.
+// Scaled ARGB_8888 bitmaps are also written to the cache dir as raw pixels (int32 LE width, height, then
+// the pixel buffer). preload maps them back on the disk thread when the plugin attaches, so the first
+// setConfig after a cold start finds them in memory and get never touches the disk on the calling thread.
+class DrawableCache {
+    private static final int MAX_BYTES = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, 16 * 1024 * 1024);
+    private static final long MAX_DISK_BYTES = 32 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final String DIRECTORY = "regula_drawables";
+
+    private static final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+
+    private static final LruCache<String, Bitmap> cache = new LruCache<String, Bitmap>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
+    static String key(String base64, float density) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(base64.getBytes(StandardCharsets.US_ASCII));
+            StringBuilder result = new StringBuilder(hash.length * 2 + 8);
+            for (byte b : hash)
+                result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return result.append('@').append(density).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Bitmap get(Context context, String key) {
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null) {
+            // keeps the disk files in use order for trim
+            File file = file(context, key);
+            long now = System.currentTimeMillis();
+            diskExecutor.execute(() -> file.setLastModified(now));
+        }
+        return bitmap;
+    }
+
+    static void put(Context context, String key, Bitmap bitmap) {
+        cache.put(key, bitmap);
+        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) return;
+        File file = file(context, key);
+        diskExecutor.execute(() -> store(file, bitmap));
+    }
+
+    // Most recently used files first, until the memory cache is full.
+    static void preload(Context context) {
+        File directory = new File(context.getCacheDir(), DIRECTORY);
+        diskExecutor.execute(() -> {
+            File[] files = directory.listFiles((dir, name) -> name.endsWith(".px"));
+            if (files == null) return;
+            Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+            for (File file : files) {
+                if (cache.size() + file.length() - HEADER_SIZE > cache.maxSize()) break;
+                String key = file.getName().substring(0, file.getName().length() - ".px".length());
+                if (cache.get(key) != null) continue;
+                Bitmap bitmap = load(file);
+                if (bitmap != null) cache.put(key, bitmap);
+            }
+        });
+    }
+
+    static void clear() {
+        cache.evictAll();
+    }
+
+    private static File file(Context context, String key) {
+        return new File(new File(context.getCacheDir(), DIRECTORY), key + ".px");
+    }
+
+    private static Bitmap load(File file) {
+        if (!file.isFile()) return null;
+        try (RandomAccessFile input = new RandomAccessFile(file, "r"); FileChannel channel = input.getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width <= 0 || height <= 0 || buffer.remaining() != width * height * 4) return null;
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            bitmap.copyPixelsFromBuffer(buffer);
+            return bitmap;
+        } catch (IOException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    // Written to a temp file and renamed, so a reader never sees a partial file.
+    private static void store(File file, Bitmap bitmap) {
+        if (file.isFile()) {
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return;
+        }
+        File directory = file.getParentFile();
+        if (directory == null || (!directory.isDirectory() && !directory.mkdirs())) return;
+        File temp = new File(directory, file.getName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bitmap.getByteCount()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(bitmap.getWidth()).putInt(bitmap.getHeight());
+        bitmap.copyPixelsToBuffer(buffer);
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            output.write(buffer.array());
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        trim(directory);
+    }
+
+    // Least recently used files go first once the directory exceeds MAX_DISK_BYTES.
+    private static void trim(File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= MAX_DISK_BYTES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= MAX_DISK_BYTES) break;
+            long length = file.length();
+            if (file.delete()) total -= length;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import io.flutter.plugin.common.EventChannel;
+
+// Delivers events to the flutter side through a single main-thread Handler.
+// Every event channel gets its own queue which is drained in one main looper message,
+// so a burst of events costs one post instead of one per event. Nothing is dropped except progress-like events
+// that a later event with the same key supersedes while they wait, which also keeps those queues to one event per key.
+class EventDispatcher {
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    static void post(Runnable runnable) {
+        handler.post(runnable);
+    }
+
+    static void postDelayed(Runnable runnable, long delayMillis) {
+        handler.postDelayed(runnable, delayMillis);
+    }
+
+    static void cancel(Runnable runnable) {
+        handler.removeCallbacks(runnable);
+    }
+
+    static class Channel {
+        private final Executor mainThread;
+        private final List<Event> queue = new ArrayList<>();
+        private boolean scheduled = false;
+
+        Channel() {
+            this(EventDispatcher::post);
+        }
+
+        // Drains through the given executor instead of the main looper.
+        Channel(Executor mainThread) {
+            this.mainThread = mainThread;
+        }
+
+        void send(EventChannel.EventSink sink, Object payload) {
+            send(sink, null, payload);
+        }
+
+        // An event with a coalescing key takes the place of the queued event with the same key,
+        // so only the latest value reaches the UI if it hasn't drained the queue yet, in the order the key was first queued.
+        synchronized void send(EventChannel.EventSink sink, Object key, Object payload) {
+            if (key != null)
+                for (int i = 0; i < queue.size(); i++)
+                    if (key.equals(queue.get(i).key)) {
+                        queue.set(i, new Event(sink, key, payload));
+                        return;
+                    }
+            queue.add(new Event(sink, key, payload));
+            if (!scheduled) {
+                scheduled = true;
+                mainThread.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<Event> events;
+            synchronized (this) {
+                events = new ArrayList<>(queue);
+                queue.clear();
+                scheduled = false;
+            }
+            for (Event event : events)
+                event.sink.success(event.payload);
+        }
+    }
+
+    private static class Event {
+        final EventChannel.EventSink sink;
+        final Object key;
+        final Object payload;
+
+        Event(EventChannel.EventSink sink, Object key, Object payload) {
+            this.sink = sink;
+            this.key = key;
+            this.payload = payload;
+        }
+    }
+}
@@ -1,6 +1,18 @@
 package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
 
 import static com.regula.documentreader.api.DocumentReader.Instance;
+import static com.regula.documentreader.api.completions.IRfidNotificationCompletion.RFID_EXTRA_ERROR_CODE;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.ANY;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.BOOL;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.BYTES;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.IMAGE;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.INT;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.LIST;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.MAP;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.OPT_LIST;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.OPT_MAP;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.OPT_STRING;
+import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.MethodRegistry.ArgType.STRING;
 
 import android.annotation.SuppressLint;
 import android.app.Activity;
@@ -11,8 +23,6 @@ import android.content.IntentFilter;
 import android.graphics.Bitmap;
 import android.nfc.NfcAdapter;
 import android.nfc.tech.IsoDep;
-import android.os.Handler;
-import android.os.Looper;
 import android.os.Bundle;
 import android.util.Base64;
 
@@ -37,6 +47,7 @@ import com.regula.documentreader.api.params.rfid.PKDCertificate;
 import com.regula.documentreader.api.params.rfid.authorization.PAResourcesIssuer;
 import com.regula.documentreader.api.params.rfid.authorization.TAChallenge;
 import com.regula.documentreader.api.parser.DocReaderResultsJsonParser;
+import com.regula.documentreader.api.results.DocumentReaderGraphicField;
 import com.regula.documentreader.api.results.DocumentReaderResults;
 
 import org.json.JSONArray;
@@ -46,15 +57,25 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
 import io.flutter.embedding.engine.plugins.activity.ActivityAware;
 import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
 import io.flutter.embedding.engine.plugins.lifecycle.HiddenLifecycleReference;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.BinaryCodec;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
@@ -63,7 +84,7 @@ import io.flutter.plugin.common.MethodChannel.Result;
 
 @SuppressWarnings({"unchecked", "NullableProblems", "ConstantConditions", "RedundantSuppression"})
 public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCallHandler, ActivityAware {
-    private ArrayList<Object> args;
+    private final ThreadLocal<ArrayList<Object>> args = new ThreadLocal<>();
     private boolean backgroundRFIDEnabled = false;
     private Activity activity;
     private EventChannel.EventSink eventDatabaseProgress;
@@ -73,10 +94,21 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
     private EventChannel.EventSink eventPACertificateCompletion;
     private EventChannel.EventSink eventTACertificateCompletion;
     private EventChannel.EventSink eventTASignatureCompletion;
+    private EventChannel.EventSink eventBatchJobCompletion;
     private IRfidPKDCertificateCompletion paCertificateCompletion;
     private IRfidPKDCertificateCompletion taCertificateCompletion;
     private IRfidTASignatureCompletion taSignatureCompletion;
     private static int databaseDownloadProgress = 0;
+    private volatile DocumentReaderResults lastResults;
+    private volatile FrameStream frameStream;
+    private final ThreadLocal<String> currentRequestId = new ThreadLocal<>();
+    private final MethodRegistry<Callback> methods = registerMethods();
+    private BatchJobQueue batchJobQueue;
+    // Main thread only. The sdk reports to a single completion, so a batch job waits while a foreground recognition
+    // holds it, and a foreground recognition that starts during a job ends the job.
+    private boolean foregroundRecognition = false;
+    private BatchRecognition waitingBatchJob;
+    private BatchRecognition runningBatchJob;
 
     public FlutterDocumentReaderApiPlugin() {
     }
@@ -161,15 +193,38 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
             public void onCancel(Object arguments) {
             }
         });
+        new EventChannel(flutterPluginBinding.getBinaryMessenger(), "flutter_document_reader_api/event/batch_job_completion").setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                eventBatchJobCompletion = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+            }
+        });
         new MethodChannel(flutterPluginBinding.getBinaryMessenger(), "flutter_document_reader_api/method").setMethodCallHandler(this);
+        new BasicMessageChannel<>(flutterPluginBinding.getBinaryMessenger(), "flutter_document_reader_api/frame", BinaryCodec.INSTANCE).setMessageHandler((message, reply) -> {
+            try {
+                recognizeFrameMessage(message);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            reply.reply(null);
+        });
     }
 
     @Override
     public void onAttachedToActivity(ActivityPluginBinding binding) {
         activity = binding.getActivity();
+        DrawableCache.preload(activity);
         binding.addOnNewIntentListener(intent -> {
             if (intent.getAction() != null && intent.getAction().equals(NfcAdapter.ACTION_TECH_DISCOVERED) && backgroundRFIDEnabled)
-                Instance().readRFID(IsoDep.get(intent.getParcelableExtra(NfcAdapter.EXTRA_TAG)), getCompletion());
+                try {
+                    startForegroundRecognition(() -> Instance().readRFID(IsoDep.get(intent.getParcelableExtra(NfcAdapter.EXTRA_TAG)), getCompletion()));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
             return false;
         });
         ((HiddenLifecycleReference) binding.getLifecycle()).getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
@@ -194,6 +249,14 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
     public void onDetachedFromEngine(FlutterPluginBinding binding) {
     }
 
+    private interface PayloadGenerator {
+        Object generate();
+    }
+
+    private interface RecognitionStart {
+        void start() throws Exception;
+    }
+
     private interface Callback {
         void success(Object o);
 
@@ -236,6 +299,7 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
     }
 
     private <T> T args(int index) {
+        ArrayList<Object> args = this.args.get();
         if (args.get(index).getClass().equals(java.util.HashMap.class))
             return (T) hashMapToJSONObject((HashMap<String, ?>) args.get(index));
         if (args.get(index).getClass().equals(java.util.ArrayList.class))
@@ -243,246 +307,384 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         return (T) args.get(index);
     }
 
-    private void sendCompletion(int action, DocumentReaderResults results, DocumentReaderException error) {
-        if (eventCompletion != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventCompletion.success(JSONConstructor.generateCompletion(action, results, error, getContext()).toString()));
+    // Decoded codec values, without the copy into org.json.
+    private <T> T rawArgs(int index) {
+        return (T) this.args.get().get(index);
+    }
+
+    private ConfigMap mapArgs(int index) {
+        return new ConfigMap(rawArgs(index));
+    }
+
+    private <T> T optRawArgs(int index) {
+        ArrayList<Object> args = this.args.get();
+        return args.size() > index ? (T) args.get(index) : null;
+    }
+
+    private <T> T optArgs(int index) {
+        ArrayList<Object> args = this.args.get();
+        if (args.size() <= index || args.get(index) == null) return null;
+        return args(index);
+    }
+
+    private void sendCompletion(int action, DocumentReaderResults results, DocumentReaderException error, String requestId) {
+        if (eventCompletion == null) return;
+        int format = completionFormat;
+        int imageMode = graphicImageMode;
+        ResultProjection projection = resultProjection;
+        ResultsDelta delta = isResultsDeltaAction(action) ? resultsDelta : null;
+        // The optical COMPLETE is followed by the chip COMPLETE of the same session, so only a failed or cancelled
+        // scan ends the baseline here, new scans and sessions reset it through resetResultsDelta.
+        boolean resetDelta = action == DocReaderAction.CANCEL || action == DocReaderAction.ERROR;
+        sendEvent(completionChannel, eventCompletion, () -> {
+            Object payload = generateCompletionPayload(action, results, error, format, imageMode, projection, delta, requestId);
+            ResultsDelta current = resultsDelta;
+            if (resetDelta && current != null)
+                current.reset();
+            return payload;
+        });
+    }
+
+    private Object generateCompletionPayload(int action, DocumentReaderResults results, DocumentReaderException error, int format, int imageMode, ResultProjection projection, ResultsDelta delta, String requestId) {
+        GraphicImages images = new GraphicImages(imageMode, getContext());
+        ResultsParams params = new ResultsParams(images, projection, delta, results, requestId);
+        if (format == CompletionFormat.BINARY)
+            return BinaryResultsEncoder.encodeCompletion(action, results, error, getContext(), params);
+        String completion = JSONConstructor.generateCompletion(action, results, error, getContext(), params).toString();
+        if (images.mode != GraphicImages.BYTES)
+            return completion;
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("completion", completion);
+        payload.put("images", images.bytes);
+        return payload;
+    }
+
+    // Payloads are built one at a time on the serialization thread and posted to the main thread
+    // in the same order, so events on every channel keep the order they were sent in.
+    private static void sendEvent(EventDispatcher.Channel channel, EventChannel.EventSink sink, PayloadGenerator generator) {
+        sendEvent(channel, sink, null, generator);
+    }
+
+    private static void sendEvent(EventDispatcher.Channel channel, EventChannel.EventSink sink, Object key, PayloadGenerator generator) {
+        serializationExecutor.execute(() -> channel.send(sink, key, generator.generate()));
+    }
+
+    // Queued behind the payloads still being built, so completions of the previous scan keep diffing against its baseline.
+    private static void resetResultsDelta() {
+        ResultsDelta delta = resultsDelta;
+        if (delta != null)
+            serializationExecutor.execute(delta::reset);
+    }
+
+    private static boolean isResultsDeltaAction(int action) {
+        return action == DocReaderAction.MORE_PAGES_AVAILABLE || action == DocReaderAction.COMPLETE;
     }
 
     private void sendProgress(int progress) {
         if (eventDatabaseProgress != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventDatabaseProgress.success(progress + ""));
+            databaseProgressChannel.send(eventDatabaseProgress, "progress", progress + "");
     }
 
     private void sendVideoEncoderCompletion(String sessionId, File file) {
         if (eventVideoEncoderCompletion != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventVideoEncoderCompletion.success(JSONConstructor.generateVideoEncoderCompletion(sessionId, file).toString()));
+            sendEvent(videoEncoderCompletionChannel, eventVideoEncoderCompletion, () -> JSONConstructor.generateVideoEncoderCompletion(sessionId, file).toString());
     }
 
+    // Keyed by everything the event carries, so only a repeat of a still queued notification is coalesced,
+    // notifications with the same code but another value all reach dart.
     private void sendIRfidNotificationCompletion(int notification, Bundle value) {
-        if (eventIRfidNotificationCompletion != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventIRfidNotificationCompletion.success(JSONConstructor.generateRfidNotificationCompletion(notification, value).toString()));
+        if (eventIRfidNotificationCompletion == null) return;
+        String key = notification + ":" + (value != null ? value.get(RFID_EXTRA_ERROR_CODE) : null);
+        sendEvent(rfidNotificationCompletionChannel, eventIRfidNotificationCompletion, key, () -> JSONConstructor.generateRfidNotificationCompletion(notification, value).toString());
     }
 
     private void sendPACertificateCompletion(byte[] serialNumber, PAResourcesIssuer issuer) {
         if (eventPACertificateCompletion != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventPACertificateCompletion.success(JSONConstructor.generatePACertificateCompletion(serialNumber, issuer).toString()));
+            sendEvent(paCertificateCompletionChannel, eventPACertificateCompletion, () -> JSONConstructor.generatePACertificateCompletion(serialNumber, issuer).toString());
     }
 
     private void sendTACertificateCompletion(String keyCAR) {
         if (eventTACertificateCompletion != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventTACertificateCompletion.success(keyCAR));
+            taCertificateCompletionChannel.send(eventTACertificateCompletion, keyCAR);
+    }
+
+    private void sendBatchJobCompletion(JSONObject event) {
+        if (eventBatchJobCompletion != null)
+            sendEvent(batchJobCompletionChannel, eventBatchJobCompletion, event::toString);
     }
 
     private void sendTASignatureCompletion(TAChallenge challenge) {
         if (eventTASignatureCompletion != null)
-            new Handler(Looper.getMainLooper()).post(() -> eventTASignatureCompletion.success(JSONConstructor.generateTAChallenge(challenge).toString()));
+            sendEvent(taSignatureCompletionChannel, eventTASignatureCompletion, () -> JSONConstructor.generateTAChallenge(challenge).toString());
     }
 
     @Override
     public void onMethodCall(MethodCall call, Result result) {
+        route(call, result, null);
+    }
+
+    // Background-safe methods run on the worker thread and post their result back to the main thread.
+    // While any call is queued there, main-thread methods queue behind it, so calls still run in the order they were made.
+    // Envelope methods run right away, they only route the calls they wrap, which keeps those in order too.
+    private void route(MethodCall call, Result result, String requestId) {
+        if (envelopeMethods.contains(call.method))
+            dispatch(call, result, requestId);
+        else if (backgroundMethods.contains(call.method)) {
+            queuedCalls.incrementAndGet();
+            workerExecutor.execute(() -> {
+                try {
+                    dispatch(call, mainThreadResult(result), requestId);
+                } finally {
+                    queuedCalls.decrementAndGet();
+                }
+            });
+        } else if (queuedCalls.get() > 0) {
+            queuedCalls.incrementAndGet();
+            workerExecutor.execute(() -> EventDispatcher.post(() -> {
+                try {
+                    dispatch(call, result, requestId);
+                } finally {
+                    queuedCalls.decrementAndGet();
+                }
+            }));
+        } else
+            dispatch(call, result, requestId);
+    }
+
+    // The request id is visible to getCompletion on the thread the call runs on, for the duration of the handler.
+    private void dispatch(MethodCall call, Result result, String requestId) {
+        if (requestId == null) {
+            dispatch(call, result);
+            return;
+        }
+        currentRequestId.set(requestId);
+        try {
+            dispatch(call, result);
+        } finally {
+            currentRequestId.remove();
+        }
+    }
+
+    private static Result mainThreadResult(Result result) {
+        return new Result() {
+            @Override
+            public void success(Object o) {
+                EventDispatcher.post(() -> result.success(o));
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                EventDispatcher.post(() -> result.error(errorCode, errorMessage, errorDetails));
+            }
+
+            @Override
+            public void notImplemented() {
+                EventDispatcher.post(result::notImplemented);
+            }
+        };
+    }
+
+    private MethodRegistry<Callback> registerMethods() {
+        MethodRegistry<Callback> methods = new MethodRegistry<>();
+        methods.register("invokeBatch", callback -> invokeBatch(callback, rawArgs(0)), LIST);
+        methods.register("withRequestId", callback -> withRequestId(callback, args(0), args(1), (ArrayList<Object>) args.get().get(2)), STRING, STRING, LIST);
+        methods.register("initializeReaderAutomatically", this::initializeReaderAutomatically);
+        methods.register("getAPIVersion", this::getAPIVersion);
+        methods.register("getAvailableScenarios", this::getAvailableScenarios);
+        methods.register("isRFIDAvailableForUse", this::isRFIDAvailableForUse);
+        methods.register("getCoreMode", this::getCoreMode);
+        methods.register("getCoreVersion", this::getCoreVersion);
+        methods.register("getDatabaseDate", this::getDatabaseDate);
+        methods.register("getDatabaseID", this::getDatabaseID);
+        methods.register("getDatabaseVersion", this::getDatabaseVersion);
+        methods.register("getDocumentReaderIsReady", this::getDocumentReaderIsReady);
+        methods.register("getDocumentReaderStatus", this::getDocumentReaderStatus);
+        methods.register("getDatabaseCountriesNumber", this::getDatabaseCountriesNumber);
+        methods.register("getDatabaseDocumentsNumber", this::getDatabaseDocumentsNumber);
+        methods.register("selectedScenario", this::selectedScenario);
+        methods.register("getSessionLogFolder", this::getSessionLogFolder);
+        methods.register("getDatabaseDescription", this::getDatabaseDescription);
+        methods.register("showScanner", callback -> showScanner(callback, optRawArgs(0)), OPT_STRING);
+        methods.register("startNewPage", this::startNewPage);
+        methods.register("startNewSession", this::startNewSession);
+        methods.register("startRFIDReader", this::startRFIDReader);
+        methods.register("stopRFIDReader", this::stopRFIDReader);
+        methods.register("stopRFIDReaderWithErrorMessage", callback -> stopRFIDReaderWithErrorMessage(callback, args(0)), STRING);
+        methods.register("stopScanner", this::stopScanner);
+        methods.register("deinitializeReader", this::deinitializeReader);
+        methods.register("isAuthenticatorAvailableForUse", this::isAuthenticatorAvailableForUse);
+        methods.register("getConfig", this::getConfig);
+        methods.register("registerConfigProfile", callback -> registerConfigProfile(callback, args(0), mapArgs(1)), STRING, MAP);
+        methods.register("applyConfigProfile", callback -> applyConfigProfile(callback, args(0)), STRING);
+        methods.register("getConfigValues", callback -> getConfigValues(callback, optRawArgs(0), optRawArgs(1)), OPT_LIST, OPT_LIST);
+        methods.register("getRfidScenario", this::getRfidScenario);
+        methods.register("getLicenseExpiryDate", this::getLicenseExpiryDate);
+        methods.register("getLicenseCountryFilter", this::getLicenseCountryFilter);
+        methods.register("licenseIsRfidAvailable", this::licenseIsRfidAvailable);
+        methods.register("getCameraSessionIsPaused", this::getCameraSessionIsPaused);
+        methods.register("removeDatabase", this::removeDatabase);
+        methods.register("cancelDBUpdate", this::cancelDBUpdate);
+        methods.register("resetConfiguration", this::resetConfiguration);
+        methods.register("clearPKDCertificates", this::clearPKDCertificates);
+        methods.register("readRFID", this::readRFID);
+        methods.register("getRfidSessionStatus", this::getRfidSessionStatus);
+        methods.register("setRfidDelegate", callback -> setRfidDelegate(callback, args(0)), INT);
+        methods.register("setEnableCoreLogs", callback -> setEnableCoreLogs(callback, args(0)), BOOL);
+        methods.register("addPKDCertificates", callback -> addPKDCertificates(callback, rawArgs(0)), LIST);
+        methods.register("setCameraSessionIsPaused", callback -> setCameraSessionIsPaused(callback, args(0)), BOOL);
+        methods.register("getScenario", callback -> getScenario(callback, args(0)), STRING);
+        methods.register("recognizeImages", callback -> recognizeImages(callback, args(0), optArgs(1)), LIST, OPT_MAP);
+        methods.register("showScannerWithCameraID", callback -> showScannerWithCameraID(callback, args(0)), INT);
+        methods.register("runAutoUpdate", callback -> runAutoUpdate(callback, args(0)), STRING);
+        methods.register("setConfig", callback -> setConfig(callback, mapArgs(0)), MAP);
+        methods.register("setRfidScenario", callback -> setRfidScenario(callback, mapArgs(0)), MAP);
+        methods.register("initializeReader", callback -> initializeReader(callback, args(0)), ANY);
+        methods.register("prepareDatabase", callback -> prepareDatabase(callback, args(0)), STRING);
+        methods.register("recognizeImage", callback -> recognizeImage(callback, args(0), optArgs(1), optRawArgs(2)), IMAGE, OPT_MAP, OPT_STRING);
+        methods.register("setRfidSessionStatus", callback -> setRfidSessionStatus(callback, args(0)), STRING);
+        methods.register("providePACertificates", callback -> providePACertificates(callback, rawArgs(0)), LIST);
+        methods.register("provideTACertificates", callback -> provideTACertificates(callback, rawArgs(0)), LIST);
+        methods.register("provideTASignature", callback -> provideTASignature(callback, args(0)), ANY);
+        methods.register("parseCoreResults", callback -> parseCoreResults(callback, args(0)), STRING);
+        methods.register("setTCCParams", callback -> setTCCParams(callback, args(0)), MAP);
+        methods.register("setCompletionFormat", callback -> setCompletionFormat(callback, args(0)), INT);
+        methods.register("setGraphicImageMode", callback -> setGraphicImageMode(callback, args(0)), INT);
+        methods.register("setResultProjection", callback -> setResultProjection(callback, args(0)), MAP);
+        methods.register("setDeltaResults", callback -> setDeltaResults(callback, args(0)), BOOL);
+        methods.register("getGraphicFieldImage", callback -> getGraphicFieldImage(callback, args(0), args(1), args(2), args(3)), INT, INT, INT, INT);
+        methods.register("initializeReaderWithDatabase", callback -> initializeReaderWithDatabase(callback, args(0), args(1)), ANY, ANY);
+        methods.register("recognizeImageWithOpts", callback -> recognizeImageWithOpts(callback, args(0), mapArgs(1), optArgs(2)), IMAGE, MAP, OPT_MAP);
+        methods.register("recognizeVideoFrame", callback -> recognizeVideoFrame(callback, args(0), args(1)), IMAGE, MAP);
+        methods.register("enqueueBatchJob", callback -> enqueueBatchJob(callback, args(0)), MAP);
+        methods.register("startBatchJobs", this::startBatchJobs);
+        methods.register("stopBatchJobs", this::stopBatchJobs);
+        methods.register("getBatchJobs", this::getBatchJobs);
+        methods.register("getBatchJobResult", callback -> getBatchJobResult(callback, args(0)), STRING);
+        methods.register("removeBatchJob", callback -> removeBatchJob(callback, args(0)), STRING);
+        methods.register("startFrameStream", callback -> startFrameStream(callback, args(0)), MAP);
+        methods.register("submitFrame", callback -> submitFrame(callback, args(0)), BYTES);
+        methods.register("stopFrameStream", this::stopFrameStream);
+        methods.register("getFrameStreamStats", this::getFrameStreamStats);
+        methods.register("showScannerWithCameraIDAndOpts", callback -> showScannerWithCameraIDAndOpts(callback, args(0), mapArgs(1)), INT, MAP);
+        methods.register("recognizeImageWithCameraMode", callback -> recognizeImageWithCameraMode(callback, args(0), args(1)), STRING, BOOL);
+        methods.register("recognizeImagesWithImageInputs", callback -> recognizeImagesWithImageInputs(callback, args(0), optArgs(1)), LIST, OPT_MAP);
+        methods.register("getMethodTimings", this::getMethodTimings);
+        methods.register("resetMethodTimings", this::resetMethodTimings);
+        return methods;
+    }
+
+    private void dispatch(MethodCall call, Result result) {
         String action = call.method;
-        args = (ArrayList<Object>) call.arguments;
+        if (!methods.has(action)) {
+            result.notImplemented();
+            return;
+        }
+        ArrayList<Object> arguments = call.arguments instanceof ArrayList ? (ArrayList<Object>) call.arguments : new ArrayList<>();
+        String invalid = methods.validate(action, arguments);
+        if (invalid != null) {
+            result.error("", action + ": " + invalid, null);
+            return;
+        }
+        long start = System.nanoTime();
         Callback callback = new Callback() {
+            private boolean replied = false;
+
             @Override
-            public void success(Object o) {
+            public synchronized void success(Object o) {
+                if (replied) return;
+                replied = true;
+                methods.recordReply(action, System.nanoTime() - start);
                 result.success(o);
             }
 
             @Override
-            public void error(String s) {
+            public synchronized void error(String s) {
+                if (replied) return;
+                replied = true;
+                methods.recordReply(action, System.nanoTime() - start);
                 result.error("", s, null);
             }
         };
+        args.set(arguments);
         try {
-            switch (action) {
-                case "initializeReaderAutomatically":
-                    initializeReaderAutomatically(callback);
-                    break;
-                case "getAPIVersion":
-                    getAPIVersion(callback);
-                    break;
-                case "getAvailableScenarios":
-                    getAvailableScenarios(callback);
-                    break;
-                case "isRFIDAvailableForUse":
-                    isRFIDAvailableForUse(callback);
-                    break;
-                case "getCoreMode":
-                    getCoreMode(callback);
-                    break;
-                case "getCoreVersion":
-                    getCoreVersion(callback);
-                    break;
-                case "getDatabaseDate":
-                    getDatabaseDate(callback);
-                    break;
-                case "getDatabaseID":
-                    getDatabaseID(callback);
-                    break;
-                case "getDatabaseVersion":
-                    getDatabaseVersion(callback);
-                    break;
-                case "getDocumentReaderIsReady":
-                    getDocumentReaderIsReady(callback);
-                    break;
-                case "getDocumentReaderStatus":
-                    getDocumentReaderStatus(callback);
-                    break;
-                case "getDatabaseCountriesNumber":
-                    getDatabaseCountriesNumber(callback);
-                    break;
-                case "getDatabaseDocumentsNumber":
-                    getDatabaseDocumentsNumber(callback);
-                    break;
-                case "selectedScenario":
-                    selectedScenario(callback);
-                    break;
-                case "getSessionLogFolder":
-                    getSessionLogFolder(callback);
-                    break;
-                case "getDatabaseDescription":
-                    getDatabaseDescription(callback);
-                    break;
-                case "showScanner":
-                    showScanner(callback);
-                    break;
-                case "startNewPage":
-                    startNewPage(callback);
-                    break;
-                case "startNewSession":
-                    startNewSession(callback);
-                    break;
-                case "startRFIDReader":
-                    startRFIDReader(callback);
-                    break;
-                case "stopRFIDReader":
-                    stopRFIDReader(callback);
-                    break;
-                case "stopRFIDReaderWithErrorMessage":
-                    stopRFIDReaderWithErrorMessage(callback, args(0));
-                    break;
-                case "stopScanner":
-                    stopScanner(callback);
-                    break;
-                case "deinitializeReader":
-                    deinitializeReader(callback);
-                    break;
-                case "isAuthenticatorAvailableForUse":
-                    isAuthenticatorAvailableForUse(callback);
-                    break;
-                case "getConfig":
-                    getConfig(callback);
-                    break;
-                case "getRfidScenario":
-                    getRfidScenario(callback);
-                    break;
-                case "getLicenseExpiryDate":
-                    getLicenseExpiryDate(callback);
-                    break;
-                case "getLicenseCountryFilter":
-                    getLicenseCountryFilter(callback);
-                    break;
-                case "licenseIsRfidAvailable":
-                    licenseIsRfidAvailable(callback);
-                    break;
-                case "getCameraSessionIsPaused":
-                    getCameraSessionIsPaused(callback);
-                    break;
-                case "removeDatabase":
-                    removeDatabase(callback);
-                    break;
-                case "cancelDBUpdate":
-                    cancelDBUpdate(callback);
-                    break;
-                case "resetConfiguration":
-                    resetConfiguration(callback);
-                    break;
-                case "clearPKDCertificates":
-                    clearPKDCertificates(callback);
-                    break;
-                case "readRFID":
-                    readRFID(callback);
-                    break;
-                case "getRfidSessionStatus":
-                    getRfidSessionStatus(callback);
-                    break;
-                case "setRfidDelegate":
-                    setRfidDelegate(callback, args(0));
-                    break;
-                case "setEnableCoreLogs":
-                    setEnableCoreLogs(callback, args(0));
-                    break;
-                case "addPKDCertificates":
-                    addPKDCertificates(callback, args(0));
-                    break;
-                case "setCameraSessionIsPaused":
-                    setCameraSessionIsPaused(callback, args(0));
-                    break;
-                case "getScenario":
-                    getScenario(callback, args(0));
-                    break;
-                case "recognizeImages":
-                    recognizeImages(callback, args(0));
-                    break;
-                case "showScannerWithCameraID":
-                    showScannerWithCameraID(callback, args(0));
-                    break;
-                case "runAutoUpdate":
-                    runAutoUpdate(callback, args(0));
-                    break;
-                case "setConfig":
-                    setConfig(callback, args(0));
-                    break;
-                case "setRfidScenario":
-                    setRfidScenario(callback, args(0));
-                    break;
-                case "initializeReader":
-                    initializeReader(callback, args(0));
-                    break;
-                case "prepareDatabase":
-                    prepareDatabase(callback, args(0));
-                    break;
-                case "recognizeImage":
-                    recognizeImage(callback, args(0));
-                    break;
-                case "setRfidSessionStatus":
-                    setRfidSessionStatus(callback, args(0));
-                    break;
-                case "providePACertificates":
-                    providePACertificates(callback, args(0));
-                    break;
-                case "provideTACertificates":
-                    provideTACertificates(callback, args(0));
-                    break;
-                case "provideTASignature":
-                    provideTASignature(callback, args(0));
-                    break;
-                case "parseCoreResults":
-                    parseCoreResults(callback, args(0));
-                    break;
-                case "setTCCParams":
-                    setTCCParams(callback, args(0));
-                    break;
-                case "initializeReaderWithDatabase":
-                    initializeReaderWithDatabase(callback, args(0), args(1));
-                    break;
-                case "recognizeImageWithOpts":
-                    recognizeImageWithOpts(callback, args(0), args(1));
-                    break;
-                case "recognizeVideoFrame":
-                    recognizeVideoFrame(callback, args(0), args(1));
-                    break;
-                case "showScannerWithCameraIDAndOpts":
-                    showScannerWithCameraIDAndOpts(callback, args(0), args(1));
-                    break;
-                case "recognizeImageWithCameraMode":
-                    recognizeImageWithCameraMode(callback, args(0), args(1));
-                    break;
-                case "recognizeImagesWithImageInputs":
-                    recognizeImagesWithImageInputs(callback, args(0));
-                    break;
-            }
-        } catch (Exception ignored) {
+            methods.handler(action).handle(callback);
+        } catch (Exception e) {
+            e.printStackTrace();
+            callback.error(action + ": " + e);
+        } finally {
+            methods.recordCall(action, System.nanoTime() - start);
+        }
+    }
+
+    private void getMethodTimings(Callback callback) throws JSONException {
+        callback.success(methods.timings().toString());
+    }
+
+    private void resetMethodTimings(Callback callback) {
+        methods.resetTimings();
+        callback.success();
+    }
+
+    private void withRequestId(Callback callback, String requestId, String method, ArrayList<Object> arguments) {
+        route(new MethodCall(method, arguments), new Result() {
+            @Override
+            public void success(Object o) {
+                callback.success(o);
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                callback.error(errorMessage);
+            }
+
+            @Override
+            public void notImplemented() {
+                callback.error(method + " is not implemented");
+            }
+        }, requestId);
+    }
+
+    // Routes each {method, args} like onMethodCall would and replies once all of them have, with a {result} or {error} map per call, in order.
+    // Methods that report only through completion events never reply, they get an error entry instead of running.
+    private void invokeBatch(Callback callback, List<Map<String, Object>> calls) {
+        if (calls.isEmpty()) {
+            callback.success(new ArrayList<>());
+            return;
+        }
+        Object[] replies = new Object[calls.size()];
+        AtomicInteger pending = new AtomicInteger(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            final int index = i;
+            String method = String.valueOf(calls.get(i).get("method"));
+            Object arguments = calls.get(i).get("args");
+            Result result = new Result() {
+                @Override
+                public void success(Object o) {
+                    reply("result", o);
+                }
+
+                @Override
+                public void error(String errorCode, String errorMessage, Object errorDetails) {
+                    reply("error", errorMessage);
+                }
+
+                @Override
+                public void notImplemented() {
+                    reply("error", method + " is not implemented");
+                }
+
+                private void reply(String key, Object value) {
+                    Map<String, Object> reply = new HashMap<>();
+                    reply.put(key, value);
+                    replies[index] = reply;
+                    if (pending.decrementAndGet() == 0)
+                        callback.success(new ArrayList<>(Arrays.asList(replies)));
+                }
+            };
+            if (eventMethods.contains(method) || envelopeMethods.contains(method))
+                result.error("", method + " can't be batched, it doesn't reply", null);
+            else
+                route(new MethodCall(method, arguments instanceof ArrayList ? arguments : new ArrayList<>()), result, null);
         }
     }
 
@@ -575,7 +777,16 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
     }
 
     private void deinitializeReader(Callback callback) {
+        RegulaConfig.resetApplied();
+        if (frameStream != null)
+            frameStream.stop();
+        frameStream = null;
+        endForegroundRecognition();
+        framePool.clear();
+        bitmapPool.clear();
+        DrawableCache.clear();
         Instance().deinitializeReader();
+        lastResults = null;
         callback.success();
     }
 
@@ -587,6 +798,20 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.success(RegulaConfig.getConfig(Instance()).toString());
     }
 
+    private void registerConfigProfile(Callback callback, String name, final ConfigMap opts) throws JSONException {
+        RegulaConfig.registerProfile(name, opts);
+        callback.success();
+    }
+
+    private void applyConfigProfile(Callback callback, String name) throws JSONException {
+        RegulaConfig.applyProfile(Instance(), name, getContext());
+        callback.success();
+    }
+
+    private void getConfigValues(Callback callback, List<String> sections, List<String> keys) throws JSONException {
+        callback.success(RegulaConfig.getConfigValues(Instance(), sections, keys));
+    }
+
     private void getRfidScenario(Callback callback) {
         callback.success(Instance().rfidScenario().toJson());
     }
@@ -645,6 +870,7 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
 
     private void startNewSession(Callback callback) {
         Instance().startNewSession();
+        resetResultsDelta();
         callback.success();
     }
 
@@ -653,30 +879,234 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.success();
     }
 
-    private void recognizeImageWithOpts(Callback callback, String base64Image, final JSONObject opts) throws JSONException {
-        RegulaConfig.setConfig(Instance(), opts, getContext());
-        recognizeImage(callback, base64Image);
+    // The recognize methods run on the worker thread, which decodes the images.
+    // Config and the sdk call itself are posted to the main thread, see startRecognition.
+    private void recognizeImageWithOpts(Callback callback, Object image, final ConfigMap opts, final JSONObject decodingPolicy) throws Exception {
+        ImageDecodingPolicy policy = ImageDecodingPolicy.fromJSON(decodingPolicy, bitmapPool);
+        List<Bitmap> images = decodeImages(1, policy, i -> Helpers.bitmapFromImage(image, policy));
+        IDocumentReaderCompletion completion = getCompletion(policy);
+        startRecognition(callback, policy, () -> {
+            RegulaConfig.setConfig(Instance(), opts, getContext());
+            Instance().recognizeImage(images.get(0), completion);
+        });
     }
 
-    private void recognizeImage(@SuppressWarnings("unused") Callback callback, String base64Image) {
-        stopBackgroundRFID();
-        Instance().recognizeImage(Helpers.bitmapFromBase64(base64Image), getCompletion());
+    // Images are either base64 strings or raw encoded image bytes.
+    private void recognizeImage(Callback callback, Object image, final JSONObject decodingPolicy, String profile) throws Exception {
+        ImageDecodingPolicy policy = ImageDecodingPolicy.fromJSON(decodingPolicy, bitmapPool);
+        List<Bitmap> images = decodeImages(1, policy, i -> Helpers.bitmapFromImage(image, policy));
+        IDocumentReaderCompletion completion = getCompletion(policy);
+        startRecognition(callback, policy, () -> {
+            if (profile != null)
+                RegulaConfig.applyProfile(Instance(), profile, getContext());
+            Instance().recognizeImage(images.get(0), completion);
+        });
     }
 
-    private void recognizeImages(@SuppressWarnings("unused") Callback callback, JSONArray base64Images) throws JSONException {
-        stopBackgroundRFID();
-        Bitmap[] images = new Bitmap[base64Images.length()];
-        for (int i = 0; i < images.length; i++)
-            images[i] = Helpers.bitmapFromBase64(base64Images.getString(i));
-        Instance().recognizeImages(images, getCompletion());
+    private void recognizeImages(Callback callback, JSONArray base64Images, final JSONObject decodingPolicy) throws Exception {
+        ImageDecodingPolicy policy = ImageDecodingPolicy.fromJSON(decodingPolicy, bitmapPool);
+        List<Bitmap> images = decodeImages(base64Images.length(), policy, i -> Helpers.bitmapFromImage(base64Images.get(i), policy));
+        IDocumentReaderCompletion completion = getCompletion(policy);
+        startRecognition(callback, policy, () -> Instance().recognizeImages(images.toArray(new Bitmap[0]), completion));
     }
 
-    private void recognizeImagesWithImageInputs(@SuppressWarnings("unused") Callback callback, JSONArray base64Images) throws JSONException {
-        stopBackgroundRFID();
-        ImageInputData[] images = new ImageInputData[base64Images.length()];
-        for (int i = 0; i < images.length; i++)
-            images[i] = JSONConstructor.ImageInputDataFromJSON(base64Images.getJSONObject(i));
-        Instance().recognizeImages(images, getCompletion());
+    private void recognizeImagesWithImageInputs(Callback callback, JSONArray base64Images, final JSONObject decodingPolicy) throws Exception {
+        ImageDecodingPolicy policy = ImageDecodingPolicy.fromJSON(decodingPolicy, bitmapPool);
+        List<ImageInputData> images = decodeImages(base64Images.length(), policy, i -> decodedInput(JSONConstructor.ImageInputDataFromJSON(base64Images.getJSONObject(i), policy)));
+        IDocumentReaderCompletion completion = getCompletion(policy);
+        startRecognition(callback, policy, () -> Instance().recognizeImages(images.toArray(new ImageInputData[0]), completion));
+    }
+
+    // Pooled bitmaps of a failed decode go straight back to the pool.
+    // An image that can't be decoded fails the whole call rather than reaching the sdk as null.
+    private static <T> List<T> decodeImages(int count, ImageDecodingPolicy policy, ParallelDecoder.DecodeTask<T> task) throws Exception {
+        try {
+            List<T> images = ParallelDecoder.decodeAll(count, policy.maxByteCount, task);
+            for (int i = 0; i < images.size(); i++)
+                if (images.get(i) == null)
+                    throw new IllegalArgumentException("cannot decode image at index " + i);
+            return images;
+        } catch (Exception e) {
+            if (policy.lease != null)
+                policy.lease.releaseAll();
+            throw e;
+        }
+    }
+
+    // Null unless the input carries a decoded bitmap or raw image bytes.
+    private static ImageInputData decodedInput(ImageInputData input) {
+        return input.getBitmap() != null || input.getImgBytes() != null ? input : null;
+    }
+
+    // The sdk is driven from the main thread. Posted from the worker, so it keeps its place among calls queued behind it.
+    private void startRecognition(Callback callback, ImageDecodingPolicy policy, RecognitionStart recognition) {
+        EventDispatcher.post(() -> {
+            try {
+                startForegroundRecognition(() -> {
+                    stopBackgroundRFID();
+                    resetResultsDelta();
+                    recognition.start();
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                if (policy.lease != null)
+                    policy.lease.releaseAll();
+                callback.error(e.toString());
+            }
+        });
+    }
+
+    private synchronized BatchJobQueue getBatchJobQueue() {
+        if (batchJobQueue == null)
+            batchJobQueue = new BatchJobQueue(new File(getContext().getFilesDir(), "regula_batch_jobs"), batchExecutor, this::runBatchJob, this::sendBatchJobCompletion);
+        return batchJobQueue;
+    }
+
+    // Raw image bytes are stored as base64, the job store is plain json.
+    // The config is checked now rather than when the job runs, possibly after a restart.
+    private void enqueueBatchJob(Callback callback, final JSONObject job) throws JSONException, IOException {
+        if (job.has("config"))
+            RegulaConfig.checkTemporaryConfig(ConfigMap.fromJSON(job.getJSONObject("config")));
+        JSONArray images = job.getJSONArray("images");
+        for (int i = 0; i < images.length(); i++)
+            if (images.get(i) instanceof byte[])
+                images.put(i, Base64.encodeToString((byte[]) images.get(i), Base64.NO_WRAP));
+        callback.success(getBatchJobQueue().enqueue(job));
+    }
+
+    private void startBatchJobs(Callback callback) {
+        getBatchJobQueue().start();
+        callback.success();
+    }
+
+    private void stopBatchJobs(Callback callback) {
+        getBatchJobQueue().stop();
+        callback.success();
+    }
+
+    private void getBatchJobs(Callback callback) throws JSONException {
+        callback.success(getBatchJobQueue().list().toString());
+    }
+
+    private void getBatchJobResult(Callback callback, String id) throws IOException {
+        callback.success(getBatchJobQueue().result(id));
+    }
+
+    private void removeBatchJob(Callback callback, String id) {
+        callback.success(getBatchJobQueue().remove(id));
+    }
+
+    // Called on the batch executor, so decoding a large job never holds up the background method calls on the worker.
+    // Only the config and the recognition go to the main thread, the completion is serialized back on the batch executor.
+    private void runBatchJob(String id, JSONObject job, BatchJobQueue.JobCompletion completion) throws Exception {
+        ConfigMap config = job.has("config") ? ConfigMap.fromJSON(job.getJSONObject("config")) : null;
+        ImageDecodingPolicy policy = ImageDecodingPolicy.fromJSON(job.optJSONObject("decodingPolicy"), bitmapPool);
+        long timeout = job.optLong("timeout", BATCH_JOB_TIMEOUT);
+        JSONArray images = job.getJSONArray("images");
+        List<Bitmap> bitmaps = decodeImages(images.length(), policy, i -> Helpers.bitmapFromImage(images.get(i), policy));
+        BatchRecognition recognition = new BatchRecognition(config, policy, bitmaps, timeout, completion);
+        EventDispatcher.post(() -> {
+            if (foregroundBusy())
+                waitingBatchJob = recognition;
+            else
+                recognition.start();
+        });
+    }
+
+    // A batch job's run on the main thread. It ends exactly once, when the sdk completes it, when a foreground recognition
+    // takes the sdk over or when it times out. The job's config only lasts for the job, the values it replaced are set again.
+    private class BatchRecognition {
+        private final ConfigMap config;
+        private final ImageDecodingPolicy policy;
+        private final List<Bitmap> bitmaps;
+        private final long timeout;
+        private final BatchJobQueue.JobCompletion completion;
+        private final Runnable timeoutTask = () -> interrupt("timed out");
+        private ConfigMap previous;
+        private boolean ended = false;
+
+        BatchRecognition(ConfigMap config, ImageDecodingPolicy policy, List<Bitmap> bitmaps, long timeout, BatchJobQueue.JobCompletion completion) {
+            this.config = config;
+            this.policy = policy;
+            this.bitmaps = bitmaps;
+            this.timeout = timeout;
+            this.completion = completion;
+        }
+
+        void start() {
+            runningBatchJob = this;
+            try {
+                stopBackgroundRFID();
+                if (config != null) {
+                    previous = RegulaConfig.currentValues(Instance(), config);
+                    RegulaConfig.setConfig(Instance(), config, getContext());
+                }
+                EventDispatcher.postDelayed(timeoutTask, timeout);
+                Instance().recognizeImages(bitmaps.toArray(new Bitmap[0]), (action, results, error) -> {
+                    if (ended || !isFinalAction(action)) return;
+                    end(true);
+                    batchExecutor.execute(() -> completion.finish(JSONConstructor.generateCompletion(action, results, error, getContext())));
+                });
+            } catch (Exception e) {
+                end(true);
+                completion.fail(e);
+            }
+        }
+
+        // The sdk may still be reading the images, so leased bitmaps are left to the garbage collector instead of the pool.
+        void interrupt(String reason) {
+            if (ended) return;
+            end(false);
+            completion.fail(new IllegalStateException("batch job " + reason));
+        }
+
+        private void end(boolean releaseImages) {
+            ended = true;
+            EventDispatcher.cancel(timeoutTask);
+            if (runningBatchJob == this)
+                runningBatchJob = null;
+            restoreConfig(previous);
+            if (releaseImages && policy.lease != null)
+                policy.lease.releaseAll();
+        }
+    }
+
+    private boolean foregroundBusy() {
+        return foregroundRecognition || frameStream != null;
+    }
+
+    // Marked before the recognition touches any config, so a running batch job restores its own config first.
+    private void startForegroundRecognition(RecognitionStart recognition) throws Exception {
+        foregroundRecognition = true;
+        if (runningBatchJob != null)
+            runningBatchJob.interrupt("interrupted by a foreground recognition");
+        try {
+            recognition.start();
+        } catch (Exception e) {
+            endForegroundRecognition();
+            throw e;
+        }
+    }
+
+    private void endForegroundRecognition() {
+        foregroundRecognition = false;
+        if (waitingBatchJob == null || foregroundBusy()) return;
+        BatchRecognition job = waitingBatchJob;
+        waitingBatchJob = null;
+        job.start();
+    }
+
+    private static boolean isFinalAction(int action) {
+        return action == DocReaderAction.COMPLETE || action == DocReaderAction.CANCEL || action == DocReaderAction.ERROR;
+    }
+
+    private void restoreConfig(ConfigMap values) {
+        if (values == null) return;
+        try {
+            RegulaConfig.setConfig(Instance(), values, getContext());
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
     }
 
     private void removeDatabase(Callback callback) {
@@ -689,6 +1119,7 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
 
     private void resetConfiguration(Callback callback) {
         Instance().resetConfiguration();
+        RegulaConfig.resetApplied();
         callback.success();
     }
 
@@ -697,38 +1128,129 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.success();
     }
 
-    private void addPKDCertificates(Callback callback, JSONArray certificatesJSON) throws JSONException {
+    private void addPKDCertificates(Callback callback, List<Map<String, Object>> certificatesList) throws JSONException {
         List<PKDCertificate> certificates = new ArrayList<>();
-        for (int i = 0; i < certificatesJSON.length(); i++) {
-            JSONObject certificate = certificatesJSON.getJSONObject(i);
-            certificates.add(new PKDCertificate(Base64.decode(certificate.get("binaryData").toString(), Base64.DEFAULT), certificate.getInt("resourceType"), certificate.has("privateKey") ? Base64.decode(certificate.get("privateKey").toString(), Base64.DEFAULT) : null));
-        }
+        for (Map<String, Object> certificate : certificatesList)
+            certificates.add(pkdCertificateFromMap(new ConfigMap(certificate)));
         Instance().addPKDCertificates(certificates);
         callback.success();
     }
 
+    // binaryData and privateKey arrive either as base64 strings or as raw bytes.
+    private static PKDCertificate pkdCertificateFromMap(ConfigMap certificate) throws JSONException {
+        return new PKDCertificate(certificateBytes(certificate.get("binaryData")), certificate.getInt("resourceType"), certificate.has("privateKey") ? certificateBytes(certificate.get("privateKey")) : null);
+    }
+
+    private static byte[] certificateBytes(Object data) {
+        if (data instanceof byte[]) return (byte[]) data;
+        return Base64.decode(data.toString(), Base64.DEFAULT);
+    }
+
     private void clearPKDCertificates(Callback callback) {
         Instance().clearPKDCertificates();
         callback.success();
     }
 
-    private void recognizeVideoFrame(@SuppressWarnings("unused") Callback callback, String byteString, final JSONObject opts) throws JSONException {
-        stopBackgroundRFID();
-        Instance().recognizeVideoFrame(byteString.getBytes(), new ImageInputParam(opts.getInt("width"), opts.getInt("height"), opts.getInt("type")), getCompletion());
+    // Frames sent as Uint8List arrive as the byte[] decoded by the codec and are handed to the core as is,
+    // strings are still accepted for older callers.
+    private void recognizeVideoFrame(@SuppressWarnings("unused") Callback callback, Object frame, final JSONObject opts) throws Exception {
+        startForegroundRecognition(() -> {
+            stopBackgroundRFID();
+            byte[] bytes = frame instanceof byte[] ? (byte[]) frame : ((String) frame).getBytes();
+            Instance().recognizeVideoFrame(bytes, imageInputParamFromJSON(opts), getCompletion());
+        });
     }
 
-    private void showScannerWithCameraID(@SuppressWarnings("unused") Callback callback, int cameraID) {
-        stopBackgroundRFID();
-        Instance().showScanner(getContext(), cameraID, getCompletion());
+    // Batch jobs wait for the whole stream, not just for the frame in flight.
+    private void startFrameStream(Callback callback, final JSONObject opts) throws Exception {
+        startForegroundRecognition(() -> {
+            stopBackgroundRFID();
+            if (frameStream != null)
+                frameStream.stop();
+            frameStream = new FrameStream(imageInputParamFromJSON(opts), opts.optInt("maxInFlight", 1), getCompletion(), framePool);
+        });
+        callback.success();
     }
 
-    private void showScanner(Callback callback) {
-        showScannerWithCameraID(callback, -1);
+    private void submitFrame(Callback callback, byte[] frame) {
+        if (frameStream == null) {
+            callback.error("frame stream is not started");
+            return;
+        }
+        frameStream.submit(frame);
+        callback.success();
+    }
+
+    private void stopFrameStream(Callback callback) {
+        if (frameStream == null) {
+            callback.success();
+            return;
+        }
+        frameStream.stop();
+        callback.success(frameStream.stats().toString());
+        frameStream = null;
+        endForegroundRecognition();
+    }
+
+    private void getFrameStreamStats(Callback callback) {
+        if (frameStream == null) {
+            callback.error("frame stream is not started");
+            return;
+        }
+        callback.success(frameStream.stats().toString());
+    }
+
+    // Frame message layout: int32 width, int32 height, int32 type (little-endian), then the frame bytes.
+    // The message buffer is only valid during the call, so the frame is copied into a pooled array
+    // which goes back to the pool once the core is done with it.
+    private void recognizeFrameMessage(ByteBuffer message) throws Exception {
+        message.order(ByteOrder.LITTLE_ENDIAN);
+        int width = message.getInt();
+        int height = message.getInt();
+        int type = message.getInt();
+        byte[] frame = framePool.acquire(message.remaining());
+        message.get(frame);
+        if (frameStream != null) {
+            frameStream.submit(frame);
+            return;
+        }
+        startForegroundRecognition(() -> {
+            stopBackgroundRFID();
+            IDocumentReaderCompletion completion = getCompletion();
+            Instance().recognizeVideoFrame(frame, new ImageInputParam(width, height, type), (action, results, error) -> {
+                completion.onCompleted(action, results, error);
+                if (action != DocReaderAction.NOTIFICATION)
+                    framePool.release(frame);
+            });
+        });
+    }
+
+    private static ImageInputParam imageInputParamFromJSON(JSONObject opts) throws JSONException {
+        return new ImageInputParam(opts.getInt("width"), opts.getInt("height"), opts.getInt("type"));
+    }
+
+    private void showScannerWithCameraID(@SuppressWarnings("unused") Callback callback, int cameraID) throws Exception {
+        startForegroundRecognition(() -> openScanner(cameraID));
+    }
+
+    private void showScanner(@SuppressWarnings("unused") Callback callback, String profile) throws Exception {
+        startForegroundRecognition(() -> {
+            if (profile != null)
+                RegulaConfig.applyProfile(Instance(), profile, getContext());
+            openScanner(-1);
+        });
+    }
+
+    private void showScannerWithCameraIDAndOpts(@SuppressWarnings("unused") Callback callback, int cameraID, final ConfigMap opts) throws Exception {
+        startForegroundRecognition(() -> {
+            RegulaConfig.setConfig(Instance(), opts, getContext());
+            openScanner(cameraID);
+        });
     }
 
-    private void showScannerWithCameraIDAndOpts(@SuppressWarnings("unused") Callback callback, int cameraID, final JSONObject opts) throws JSONException {
+    private void openScanner(int cameraID) {
         stopBackgroundRFID();
-        RegulaConfig.setConfig(Instance(), opts, getContext());
+        resetResultsDelta();
         Instance().showScanner(getContext(), cameraID, getCompletion());
     }
 
@@ -737,14 +1259,15 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.success();
     }
 
-    private void startRFIDReader(@SuppressWarnings("unused") Callback callback) {
+    private void startRFIDReader(@SuppressWarnings("unused") Callback callback) throws Exception {
         stopBackgroundRFID();
         IRfidReaderRequest delegate = null;
         if (rfidDelegate == RFIDDelegate.NO_PA)
             delegate = getIRfidReaderRequestNoPA();
         if (rfidDelegate == RFIDDelegate.FULL)
             delegate = getIRfidReaderRequest();
-        Instance().startRFIDReader(getContext(), getCompletion(), delegate, this::sendIRfidNotificationCompletion);
+        IRfidReaderRequest request = delegate;
+        startForegroundRecognition(() -> Instance().startRFIDReader(getContext(), getCompletion(), request, this::sendIRfidNotificationCompletion));
     }
 
     private void stopRFIDReader(Callback callback) {
@@ -761,7 +1284,7 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         Instance().runAutoUpdate(getContext(), dbID, getPrepareCompletion(callback));
     }
 
-    private void setRfidScenario(Callback callback, final JSONObject opts) throws JSONException {
+    private void setRfidScenario(Callback callback, final ConfigMap opts) throws JSONException {
         RegulaConfig.setRfidScenario(opts);
         callback.success();
     }
@@ -770,7 +1293,7 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.success(Instance().processParams().sessionLogFolder);
     }
 
-    private void setConfig(Callback callback, final JSONObject opts) throws JSONException {
+    private void setConfig(Callback callback, final ConfigMap opts) throws JSONException {
         RegulaConfig.setConfig(Instance(), opts, getContext());
         callback.success();
     }
@@ -780,30 +1303,26 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         startForegroundDispatch(getActivity());
     }
 
-    private void providePACertificates(Callback callback, JSONArray certificatesJSON) throws JSONException {
+    private void providePACertificates(Callback callback, List<Map<String, Object>> certificatesList) throws JSONException {
         if (paCertificateCompletion == null) {
             callback.error("paCertificateCompletion is null");
             return;
         }
-        PKDCertificate[] certificates = new PKDCertificate[certificatesJSON.length()];
-        for (int i = 0; i < certificatesJSON.length(); i++) {
-            JSONObject certificate = certificatesJSON.getJSONObject(i);
-            certificates[i] = new PKDCertificate(Base64.decode(certificate.get("binaryData").toString(), Base64.DEFAULT), certificate.getInt("resourceType"), certificate.has("privateKey") ? Base64.decode(certificate.get("privateKey").toString(), Base64.DEFAULT) : null);
-        }
+        PKDCertificate[] certificates = new PKDCertificate[certificatesList.size()];
+        for (int i = 0; i < certificates.length; i++)
+            certificates[i] = pkdCertificateFromMap(new ConfigMap(certificatesList.get(i)));
         paCertificateCompletion.onCertificatesReceived(certificates);
         callback.success();
     }
 
-    private void provideTACertificates(Callback callback, JSONArray certificatesJSON) throws JSONException {
+    private void provideTACertificates(Callback callback, List<Map<String, Object>> certificatesList) throws JSONException {
         if (taCertificateCompletion == null) {
             callback.error("taCertificateCompletion is null");
             return;
         }
-        PKDCertificate[] certificates = new PKDCertificate[certificatesJSON.length()];
-        for (int i = 0; i < certificatesJSON.length(); i++) {
-            JSONObject certificate = certificatesJSON.getJSONObject(i);
-            certificates[i] = new PKDCertificate(Base64.decode(certificate.get("binaryData").toString(), Base64.DEFAULT), certificate.getInt("resourceType"), certificate.has("privateKey") ? Base64.decode(certificate.get("privateKey").toString(), Base64.DEFAULT) : null);
-        }
+        PKDCertificate[] certificates = new PKDCertificate[certificatesList.size()];
+        for (int i = 0; i < certificates.length; i++)
+            certificates[i] = pkdCertificateFromMap(new ConfigMap(certificatesList.get(i)));
         taCertificateCompletion.onCertificatesReceived(certificates);
         callback.success();
     }
@@ -826,6 +1345,43 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.success();
     }
 
+    private void setCompletionFormat(Callback callback, int format) {
+        if (format != CompletionFormat.JSON && format != CompletionFormat.BINARY) {
+            callback.error("unknown completion format: " + format);
+            return;
+        }
+        completionFormat = format;
+        callback.success();
+    }
+
+    private void setGraphicImageMode(Callback callback, int mode) {
+        if (mode < GraphicImages.BASE64 || mode > GraphicImages.NONE) {
+            callback.error("unknown graphic image mode: " + mode);
+            return;
+        }
+        graphicImageMode = mode;
+        callback.success();
+    }
+
+    private void setResultProjection(Callback callback, final JSONObject projection) {
+        resultProjection = ResultProjection.fromJSON(projection);
+        callback.success();
+    }
+
+    private void setDeltaResults(Callback callback, boolean enabled) {
+        resultsDelta = enabled ? new ResultsDelta() : null;
+        callback.success();
+    }
+
+    private void getGraphicFieldImage(Callback callback, int fieldType, int source, int light, int pageIndex) {
+        if (lastResults == null) {
+            callback.error("no results to read the image from");
+            return;
+        }
+        DocumentReaderGraphicField field = GraphicImages.find(lastResults, fieldType, source, light, pageIndex);
+        callback.success(field != null ? Helpers.bitmapToJpegBytes(field.getBitmap()) : null);
+    }
+
     private void getCameraSessionIsPaused(Callback callback) {
         callback.error("getCameraSessionIsPaused() is an ios-only method");
     }
@@ -848,11 +1404,28 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         callback.error("getRfidSessionStatus() is an ios-only method");
     }
 
+    // Completions created while a request id is set carry it, so dart can route them to the originating call.
     private IDocumentReaderCompletion getCompletion() {
+        String requestId = currentRequestId.get();
         return (action, results, error) -> {
-            sendCompletion(action, results, error);
+            if (results != null && (action == DocReaderAction.COMPLETE || action == DocReaderAction.MORE_PAGES_AVAILABLE))
+                lastResults = results;
+            sendCompletion(action, results, error, requestId);
             if (action == DocReaderAction.ERROR || action == DocReaderAction.CANCEL || (action == DocReaderAction.COMPLETE && results != null && results.rfidResult == 1))
                 stopBackgroundRFID();
+            if (isFinalAction(action))
+                endForegroundRecognition();
+        };
+    }
+
+    // Pooled input bitmaps can be reused once the core has finished with the images.
+    private IDocumentReaderCompletion getCompletion(ImageDecodingPolicy policy) {
+        IDocumentReaderCompletion completion = getCompletion();
+        if (policy.lease == null) return completion;
+        return (action, results, error) -> {
+            completion.onCompleted(action, results, error);
+            if (action == DocReaderAction.COMPLETE || action == DocReaderAction.CANCEL || action == DocReaderAction.ERROR)
+                policy.lease.releaseAll();
         };
     }
 
@@ -947,4 +1520,62 @@ public class FlutterDocumentReaderApiPlugin implements FlutterPlugin, MethodCall
         public static final int NO_PA = 1;
         public static final int FULL = 2;
     }
+
+    private static final FrameBufferPool framePool = new FrameBufferPool();
+    private static final BitmapPool bitmapPool = new BitmapPool();
+    private static final ExecutorService serializationExecutor = Executors.newSingleThreadExecutor();
+    private static final ExecutorService workerExecutor = Executors.newSingleThreadExecutor();
+    private static final ExecutorService batchExecutor = Executors.newSingleThreadExecutor();
+    private static final AtomicInteger queuedCalls = new AtomicInteger();
+    private static final long BATCH_JOB_TIMEOUT = 5 * 60 * 1000;
+    private static final Set<String> envelopeMethods = new HashSet<>(Arrays.asList(
+            "withRequestId",
+            "invokeBatch"
+    ));
+    // Methods that report through completion events only and never reply.
+    private static final Set<String> eventMethods = new HashSet<>(Arrays.asList(
+            "showScanner",
+            "showScannerWithCameraID",
+            "showScannerWithCameraIDAndOpts",
+            "recognizeImage",
+            "recognizeImageWithOpts",
+            "recognizeImages",
+            "recognizeImagesWithImageInputs",
+            "recognizeVideoFrame",
+            "startRFIDReader",
+            "readRFID"
+    ));
+    private static final Set<String> backgroundMethods = new HashSet<>(Arrays.asList(
+            "addPKDCertificates",
+            "parseCoreResults",
+            "getGraphicFieldImage",
+            "enqueueBatchJob",
+            "getBatchJobs",
+            "getBatchJobResult",
+            "removeBatchJob",
+            "getFrameStreamStats",
+            "recognizeImage",
+            "recognizeImageWithOpts",
+            "recognizeImages",
+            "recognizeImagesWithImageInputs"
+    ));
+    private static final EventDispatcher.Channel completionChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel databaseProgressChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel videoEncoderCompletionChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel rfidNotificationCompletionChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel paCertificateCompletionChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel taCertificateCompletionChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel taSignatureCompletionChannel = new EventDispatcher.Channel();
+    private static final EventDispatcher.Channel batchJobCompletionChannel = new EventDispatcher.Channel();
+
+    private static int completionFormat = CompletionFormat.JSON;
+    // Images stay native until getGraphicFieldImage asks for one.
+    private static int graphicImageMode = GraphicImages.NONE;
+    private static ResultProjection resultProjection = ResultProjection.ALL;
+    private static volatile ResultsDelta resultsDelta = null;
+
+    private static class CompletionFormat {
+        public static final int JSON = 0;
+        public static final int BINARY = 1;
+    }
 }
\ No newline at end of file
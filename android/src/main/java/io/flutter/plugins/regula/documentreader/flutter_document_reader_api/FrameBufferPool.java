@@ -0,0 +1,35 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.util.SparseArray;
+
+import java.util.ArrayDeque;
+
+// Reusable frame buffers for the video recognition path, so sustained scanning doesn't allocate
+// a new multi-hundred-KB array for every frame. Frames of one camera stream all have the same size,
+// so buffers are pooled by byte count.
+class FrameBufferPool {
+    private static final int MAX_BUFFERS_PER_SIZE = 4;
+
+    private final SparseArray<ArrayDeque<byte[]>> buffers = new SparseArray<>();
+
+    synchronized byte[] acquire(int size) {
+        ArrayDeque<byte[]> pool = buffers.get(size);
+        byte[] buffer = pool != null ? pool.pollFirst() : null;
+        return buffer != null ? buffer : new byte[size];
+    }
+
+    synchronized void release(byte[] buffer) {
+        if (buffer == null) return;
+        ArrayDeque<byte[]> pool = buffers.get(buffer.length);
+        if (pool == null) {
+            pool = new ArrayDeque<>();
+            buffers.put(buffer.length, pool);
+        }
+        if (pool.size() < MAX_BUFFERS_PER_SIZE)
+            pool.addFirst(buffer);
+    }
+
+    synchronized void clear() {
+        buffers.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import static com.regula.documentreader.api.DocumentReader.Instance;
+
+import com.regula.documentreader.api.completions.IDocumentReaderCompletion;
+import com.regula.documentreader.api.enums.DocReaderAction;
+import com.regula.documentreader.api.params.ImageInputParam;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Continuous video frame recognition with bounded latency: at most maxInFlight frames are
+// processed by the core at once and only the latest of the waiting frames is kept, older ones are dropped.
+class FrameStream {
+    private final ImageInputParam params;
+    private final int maxInFlight;
+    private final IDocumentReaderCompletion completion;
+    private final FrameBufferPool pool;
+    private byte[] pending;
+    private int inFlight = 0;
+    private long submitted = 0;
+    private long processed = 0;
+    private long dropped = 0;
+    private boolean stopped = false;
+
+    FrameStream(ImageInputParam params, int maxInFlight, IDocumentReaderCompletion completion, FrameBufferPool pool) {
+        this.params = params;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.completion = completion;
+        this.pool = pool;
+    }
+
+    void submit(byte[] frame) {
+        synchronized (this) {
+            if (stopped) {
+                pool.release(frame);
+                return;
+            }
+            submitted++;
+            if (inFlight >= maxInFlight) {
+                drop();
+                pending = frame;
+                return;
+            }
+            inFlight++;
+        }
+        recognize(frame);
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        drop();
+        pending = null;
+    }
+
+    private void drop() {
+        if (pending == null) return;
+        dropped++;
+        pool.release(pending);
+    }
+
+    synchronized JSONObject stats() {
+        JSONObject result = new JSONObject();
+        try {
+            result.put("submitted", submitted);
+            result.put("processed", processed);
+            result.put("dropped", dropped);
+            result.put("inFlight", inFlight);
+            result.put("pending", pending != null);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    private void recognize(byte[] frame) {
+        Instance().recognizeVideoFrame(frame, params, (action, results, error) -> {
+            completion.onCompleted(action, results, error);
+            if (action == DocReaderAction.NOTIFICATION) return;
+            pool.release(frame);
+            byte[] next;
+            synchronized (this) {
+                processed++;
+                next = stopped ? null : pending;
+                pending = null;
+                if (next == null) inFlight--;
+            }
+            if (next != null) recognize(next);
+        });
+    }
+}
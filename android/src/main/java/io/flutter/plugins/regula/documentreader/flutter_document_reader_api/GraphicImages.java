@@ -0,0 +1,96 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import com.regula.documentreader.api.results.DocumentReaderGraphicField;
+import com.regula.documentreader.api.results.DocumentReaderResults;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Decides how graphic field images leave the plugin for a single completion.
+class GraphicImages {
+    static final int BASE64 = 0;
+    static final int BYTES = 1;
+    static final int FILE = 2;
+    static final int NONE = 3;
+
+    private static final String DIRECTORY = "regula_graphic_fields";
+
+    final int mode;
+    final List<byte[]> bytes = new ArrayList<>();
+    private final File directory;
+
+    GraphicImages(int mode, Context context) {
+        this.mode = mode;
+        directory = mode == FILE ? new File(context.getCacheDir(), DIRECTORY) : null;
+    }
+
+    void put(JSONObject result, DocumentReaderGraphicField input) throws JSONException {
+        switch (mode) {
+            case BYTES:
+                result.put("imageRef", bytes.size());
+                bytes.add(Helpers.bitmapToJpegBytes(input.getBitmap()));
+                break;
+            case FILE:
+                result.put("imagePath", writeFile(input));
+                break;
+            case NONE:
+                break;
+            default:
+                result.put("value", input.imageBase64());
+        }
+    }
+
+    void write(BinaryResultsEncoder encoder, DocumentReaderGraphicField input) {
+        switch (mode) {
+            case BYTES:
+                encoder.key("imageBytes").value(Helpers.bitmapToJpegBytes(input.getBitmap()));
+                break;
+            case FILE:
+                encoder.key("imagePath").value(writeFile(input));
+                break;
+            case NONE:
+                break;
+            default:
+                encoder.key("value").value(input.imageBase64());
+        }
+    }
+
+    static DocumentReaderGraphicField find(DocumentReaderResults results, int fieldType, int source, int light, int pageIndex) {
+        if (results == null || results.graphicResult == null || results.graphicResult.fields == null) return null;
+        for (DocumentReaderGraphicField field : results.graphicResult.fields)
+            if (field != null && field.fieldType == fieldType
+                    && (source == -1 || field.sourceType == source)
+                    && (light == -1 || field.light == light)
+                    && (pageIndex == -1 || field.pageIndex == pageIndex))
+                return field;
+        return null;
+    }
+
+    // Files are named after the field, so every completion overwrites the previous images
+    // instead of filling up the cache dir.
+    private String writeFile(DocumentReaderGraphicField input) {
+        Bitmap bitmap = input.getBitmap();
+        if (bitmap == null) return null;
+        if (!directory.exists() && !directory.mkdirs()) return null;
+        String name = input.fieldType + "_" + input.sourceType + "_" + input.light + "_" + input.pageIndex + ".jpg";
+        File file = new File(directory, name);
+        File temp = new File(directory, name + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 100, stream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (!temp.renameTo(file)) return null;
+        return file.getPath();
+    }
+}
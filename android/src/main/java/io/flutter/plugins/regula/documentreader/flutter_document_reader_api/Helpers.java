@@ -8,6 +8,7 @@ import android.graphics.Matrix;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.util.Base64;
+import android.util.Base64InputStream;
 
 import com.regula.documentreader.api.enums.BarcodeType;
 import com.regula.documentreader.api.params.FaceMetaData;
@@ -18,27 +19,125 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 class Helpers {
+    static Bitmap bitmapFromImage(Object image) {
+        return bitmapFromImage(image, ImageDecodingPolicy.DEFAULT);
+    }
+
+    // Null if the input isn't an image BitmapFactory can decode.
+    static Bitmap bitmapFromImage(Object image, ImageDecodingPolicy policy) {
+        if (image instanceof byte[])
+            return bitmapFromBytes((byte[]) image, policy, Bitmap.Config.ARGB_8888);
+        return bitmapFromBase64((String) image, policy, Bitmap.Config.ARGB_8888);
+    }
+
     static Bitmap bitmapFromBase64(String base64) {
-        byte[] decodedString = Base64.decode(base64, Base64.DEFAULT);
-        Bitmap result = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
-        int sizeMultiplier = result.getByteCount() / 5000000;
-        if (result.getByteCount() > 5000000)
-            result = Bitmap.createScaledBitmap(result, result.getWidth() / (int) Math.sqrt(sizeMultiplier), result.getHeight() / (int) Math.sqrt(sizeMultiplier), false);
+        return bitmapFromBase64(base64, ImageDecodingPolicy.DEFAULT, Bitmap.Config.ARGB_8888);
+    }
+
+    // Decodes the base64 string on the fly, so the image never exists as a whole decoded byte array.
+    static Bitmap bitmapFromBase64(String base64, ImageDecodingPolicy policy, Bitmap.Config config) {
+        return decodeBitmap(options -> BitmapFactory.decodeStream(new Base64InputStream(new StringInputStream(base64), Base64.DEFAULT), null, options), policy, config);
+    }
+
+    static Bitmap bitmapFromBytes(byte[] bytes, ImageDecodingPolicy policy, Bitmap.Config config) {
+        return decodeBitmap(options -> BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options), policy, config);
+    }
+
+    private interface BitmapDecoder {
+        Bitmap decode(BitmapFactory.Options options);
+    }
+
+    // Reads the image bounds first and lets the decoder subsample oversized images,
+    // instead of decoding at full resolution and scaling a copy afterwards.
+    private static Bitmap decodeBitmap(BitmapDecoder decoder, ImageDecodingPolicy policy, Bitmap.Config config) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        decoder.decode(bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = policy.config != null ? policy.config : config;
+        options.inMutable = policy.mutable;
+        long byteCount = (long) bounds.outWidth * bounds.outHeight * (options.inPreferredConfig == Bitmap.Config.RGB_565 ? 2 : 4);
+        int sampleSize = 1;
+        if (policy.exactScale)
+            while (byteCount / ((long) sampleSize * sampleSize * 4) >= policy.maxByteCount)
+                sampleSize *= 2;
+        else
+            while (byteCount / ((long) sampleSize * sampleSize) > policy.maxByteCount)
+                sampleSize *= 2;
+        options.inSampleSize = sampleSize;
+
+        long sampledByteCount = byteCount / ((long) sampleSize * sampleSize);
+        if (policy.exactScale && sampledByteCount > policy.maxByteCount) {
+            options.inScaled = true;
+            options.inDensity = 10000;
+            options.inTargetDensity = (int) (10000 * Math.sqrt((double) policy.maxByteCount / sampledByteCount));
+        }
+        if (policy.lease == null)
+            return decoder.decode(options);
+
+        options.inBitmap = policy.lease.acquire(options.inPreferredConfig, Math.min(sampledByteCount, policy.maxByteCount));
+        Bitmap result;
+        try {
+            result = decoder.decode(options);
+        } catch (IllegalArgumentException e) {
+            policy.lease.release(options.inBitmap);
+            options.inBitmap = null;
+            result = decoder.decode(options);
+        }
+        policy.lease.track(result);
         return result;
     }
 
+    private static class StringInputStream extends InputStream {
+        private final String string;
+        private int position = 0;
+
+        StringInputStream(String string) {
+            this.string = string;
+        }
+
+        @Override
+        public int read() {
+            return position < string.length() ? string.charAt(position++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) return 0;
+            if (position >= string.length()) return -1;
+            int count = Math.min(length, string.length() - position);
+            for (int i = 0; i < count; i++)
+                buffer[offset + i] = (byte) string.charAt(position++);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return string.length() - position;
+        }
+    }
+
     static BitmapDrawable drawableFromBase64(String base64, Context context)
     {
-        byte[] decodedByte = Base64.decode(base64, 0);
-        Bitmap bitmap =  BitmapFactory.decodeByteArray(decodedByte, 0, decodedByte.length);
         float density = context.getResources().getDisplayMetrics().density;
-        int width = (int)(bitmap.getWidth()*density);
-        int height = (int)(bitmap.getHeight()*density);
-        return new BitmapDrawable(context.getResources(), Bitmap.createScaledBitmap(bitmap, width, height, false));
+        String key = DrawableCache.key(base64, density);
+        Bitmap scaled = DrawableCache.get(context, key);
+        if (scaled == null) {
+            byte[] decodedByte = Base64.decode(base64, 0);
+            Bitmap bitmap = BitmapFactory.decodeByteArray(decodedByte, 0, decodedByte.length);
+            int width = (int)(bitmap.getWidth()*density);
+            int height = (int)(bitmap.getHeight()*density);
+            scaled = Bitmap.createScaledBitmap(bitmap, width, height, false);
+            DrawableCache.put(context, key, scaled);
+        }
+        return new BitmapDrawable(context.getResources(), scaled);
     }
 
     static Bitmap bitmapFromDrawable(Drawable drawable) {
@@ -64,11 +163,15 @@ class Helpers {
     }
 
     static String bitmapToBase64String(Bitmap bitmap) {
+        return Base64.encodeToString(bitmapToJpegBytes(bitmap), Base64.DEFAULT);
+    }
+
+    static byte[] bitmapToJpegBytes(Bitmap bitmap) {
+        if (bitmap == null) return null;
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         bitmap.compress(Bitmap.CompressFormat.JPEG, 100, byteArrayOutputStream);
-        byte[] byteArray = byteArrayOutputStream.toByteArray();
 
-        return Base64.encodeToString(byteArray, Base64.DEFAULT);
+        return byteArrayOutputStream.toByteArray();
     }
 
     static Matrix matrixFromFloatArray(float[] floats) {
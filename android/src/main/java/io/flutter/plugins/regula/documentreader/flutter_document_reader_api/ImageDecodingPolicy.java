@@ -0,0 +1,51 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import android.graphics.Bitmap;
+
+import org.json.JSONObject;
+
+// Per-call settings for decoding input images. A null config keeps the caller's default.
+// With reuseBitmaps the policy holds the lease of the recognition it was made for, so build one per call.
+class ImageDecodingPolicy {
+    static final ImageDecodingPolicy DEFAULT = new ImageDecodingPolicy(5000000, true, null, false, null);
+
+    final int maxByteCount;
+    final boolean exactScale;
+    final Bitmap.Config config;
+    final boolean mutable;
+    final BitmapPool.Lease lease;
+
+    ImageDecodingPolicy(int maxByteCount, boolean exactScale, Bitmap.Config config, boolean mutable, BitmapPool.Lease lease) {
+        this.maxByteCount = maxByteCount;
+        this.exactScale = exactScale;
+        this.config = config;
+        this.mutable = mutable || lease != null;
+        this.lease = lease;
+    }
+
+    static ImageDecodingPolicy fromJSON(JSONObject input, BitmapPool pool) {
+        if (input == null) return DEFAULT;
+        return new ImageDecodingPolicy(
+                input.optInt("maxByteCount", DEFAULT.maxByteCount),
+                input.optBoolean("exactScale", DEFAULT.exactScale),
+                bitmapConfig(input.optInt("bitmapConfig", -1)),
+                input.optBoolean("mutable", false),
+                input.optBoolean("reuseBitmaps", false) ? pool.lease() : null);
+    }
+
+    private static Bitmap.Config bitmapConfig(int config) {
+        switch (config) {
+            case BitmapConfig.ARGB_8888:
+                return Bitmap.Config.ARGB_8888;
+            case BitmapConfig.RGB_565:
+                return Bitmap.Config.RGB_565;
+            default:
+                return null;
+        }
+    }
+
+    private static class BitmapConfig {
+        public static final int ARGB_8888 = 0;
+        public static final int RGB_565 = 1;
+    }
+}
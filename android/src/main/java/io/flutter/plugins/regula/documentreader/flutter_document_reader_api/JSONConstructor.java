@@ -4,7 +4,6 @@ import static com.regula.documentreader.api.completions.IRfidNotificationComplet
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Rect;
 import android.os.Bundle;
 import android.util.Base64;
@@ -253,14 +252,7 @@ class JSONConstructor {
     }
 
     static Bitmap BitmapFromJSON(String base64) {
-        byte[] decodedString = Base64.decode(base64, Base64.DEFAULT);
-        BitmapFactory.Options options = new BitmapFactory.Options();
-        options.inPreferredConfig = Bitmap.Config.RGB_565;
-        Bitmap result = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length, options);
-        int sizeMultiplier = result.getByteCount() / 5000000;
-        if (result.getByteCount() > 5000000)
-            result = Bitmap.createScaledBitmap(result, result.getWidth() / (int) Math.sqrt(sizeMultiplier), result.getHeight() / (int) Math.sqrt(sizeMultiplier), false);
-        return result;
+        return Helpers.bitmapFromBase64(base64, ImageDecodingPolicy.DEFAULT, Bitmap.Config.RGB_565);
     }
 
     static JSONObject generateVideoEncoderCompletion(String sessionId, java.io.File file) {
@@ -278,9 +270,17 @@ class JSONConstructor {
     }
 
     static JSONObject generateCompletion(int action, DocumentReaderResults results, DocumentReaderException error, Context context) {
+        return generateCompletion(action, results, error, context, ResultsParams.DEFAULT);
+    }
+
+    static JSONObject generateCompletion(int action, DocumentReaderResults results, DocumentReaderException error, Context context, ResultsParams params) {
         JSONObject result = new JSONObject();
         try {
             result.put("action", action);
+            if (params.delta)
+                result.put("delta", true);
+            if (params.requestId != null)
+                result.put("requestId", params.requestId);
             switch (action) {
                 case DocReaderAction.PROCESS:
                 case DocReaderAction.PROCESS_WHITE_UV_IMAGES:
@@ -292,7 +292,7 @@ class JSONConstructor {
                 case DocReaderAction.MORE_PAGES_AVAILABLE:
                 case DocReaderAction.CANCEL:
                 case DocReaderAction.ERROR:
-                    result.put("results", generateDocumentReaderResults(results, context));
+                    result.put("results", generateDocumentReaderResults(results, context, params));
                     break;
             }
             if (error != null)
@@ -362,6 +362,10 @@ class JSONConstructor {
     }
 
     static ImageInputData ImageInputDataFromJSON(JSONObject input) {
+        return ImageInputDataFromJSON(input, ImageDecodingPolicy.DEFAULT);
+    }
+
+    static ImageInputData ImageInputDataFromJSON(JSONObject input, ImageDecodingPolicy policy) {
         ImageInputData result = new ImageInputData(null);
         int pageIndex = 0;
         int light = 6;
@@ -379,7 +383,7 @@ class JSONConstructor {
             if(input.has("type"))
                 pageIndex = input.optInt("type");
             if (input.has("bitmap")) {
-                bitmap = Helpers.bitmapFromBase64(input.getString("bitmap"));
+                bitmap = Helpers.bitmapFromImage(input.get("bitmap"), policy);
                 result = new ImageInputData(bitmap, light, pageIndex);
             }
             if (input.has("imgBytes")) {
@@ -499,6 +503,10 @@ class JSONConstructor {
     }
 
     static JSONObject generateDocumentReaderGraphicField(DocumentReaderGraphicField input, Context context) {
+        return generateDocumentReaderGraphicField(input, context, null);
+    }
+
+    static JSONObject generateDocumentReaderGraphicField(DocumentReaderGraphicField input, Context context, GraphicImages images) {
         JSONObject result = new JSONObject();
         if (input == null) return result;
         try {
@@ -508,7 +516,10 @@ class JSONConstructor {
             result.put("pageIndex", input.pageIndex);
             result.put("fieldName", eGraphicFieldType.getTranslation(context, input.fieldType));
             result.put("lightName", eRPRM_Lights.getTranslation(context, input.light));
-            result.put("value", input.imageBase64());
+            if (images != null)
+                images.put(result, input);
+            else
+                result.put("value", input.imageBase64());
             result.put("fieldRect", generateDocReaderFieldRect(input.boundRect));
         } catch (JSONException e) {
             e.printStackTrace();
@@ -517,10 +528,14 @@ class JSONConstructor {
     }
 
     static JSONObject generateDocumentReaderGraphicResult(DocumentReaderGraphicResult input, Context context) {
+        return generateDocumentReaderGraphicResult(input, context, null);
+    }
+
+    static JSONObject generateDocumentReaderGraphicResult(DocumentReaderGraphicResult input, Context context, GraphicImages images) {
         JSONObject result = new JSONObject();
         if (input == null) return result;
         try {
-            result.put("fields", generateList(input.fields, JSONConstructor::generateDocumentReaderGraphicField, context));
+            result.put("fields", generateList(input.fields, (field, c) -> generateDocumentReaderGraphicField(field, c, images), context));
         } catch (JSONException e) {
             e.printStackTrace();
         }
@@ -1239,31 +1254,58 @@ class JSONConstructor {
     }
 
     static JSONObject generateDocumentReaderResults(DocumentReaderResults input, Context context) {
+        return generateDocumentReaderResults(input, context, ResultsParams.DEFAULT);
+    }
+
+    static JSONObject generateDocumentReaderResults(DocumentReaderResults input, Context context, ResultsParams params) {
         JSONObject result = new JSONObject();
         if (input == null) return result;
-        try {
-            result.put("chipPage", input.chipPage);
-            result.put("overallResult", input.getOverallResult());
-            result.put("processingFinishedStatus", input.processingFinishedStatus);
-            result.put("elapsedTime", input.elapsedTime);
-            result.put("elapsedTimeRFID", input.elapsedTimeRFID);
-            result.put("morePagesAvailable", input.morePagesAvailable);
-            result.put("rfidResult", input.rfidResult);
-            result.put("highResolution", input.highResolution);
-            result.put("graphicResult", generateDocumentReaderGraphicResult(input.graphicResult, context));
-            result.put("textResult", generateDocumentReaderTextResult(input.textResult, context));
-            result.put("documentPosition", generateList(input.documentPosition, JSONConstructor::generateElementPosition));
-            result.put("barcodePosition", generateList(input.barcodePosition, JSONConstructor::generateElementPosition));
-            result.put("mrzPosition", generateList(input.mrzPosition, JSONConstructor::generateElementPosition));
-            result.put("imageQuality", generateList(input.imageQuality, JSONConstructor::generateImageQualityGroup));
-            result.put("rawResult", input.rawResult);
-            result.put("documentReaderNotification", generateDocumentReaderNotification(input.documentReaderNotification));
-            result.put("rfidSessionData", generateRFIDSessionData(input.rfidSessionData));
-            result.put("authenticityResult", generateDocumentReaderAuthenticityResult(input.authenticityResult, context));
-            result.put("barcodeResult", generateDocumentReaderBarcodeResult(input.barcodeResult));
-            result.put("documentType", generateList(input.documentType, JSONConstructor::generateDocumentReaderDocumentType));
-            result.put("status", generateDocumentReaderResultsStatus(input.status));
-            result.put("vdsncData", generateVDSNCData(input.vdsncData));
+        ResultProjection projection = params.projection;
+        try {
+            if (projection.has("chipPage"))
+                result.put("chipPage", input.chipPage);
+            if (projection.has("overallResult"))
+                result.put("overallResult", input.getOverallResult());
+            if (projection.has("processingFinishedStatus"))
+                result.put("processingFinishedStatus", input.processingFinishedStatus);
+            if (projection.has("elapsedTime"))
+                result.put("elapsedTime", input.elapsedTime);
+            if (projection.has("elapsedTimeRFID"))
+                result.put("elapsedTimeRFID", input.elapsedTimeRFID);
+            if (projection.has("morePagesAvailable"))
+                result.put("morePagesAvailable", input.morePagesAvailable);
+            if (projection.has("rfidResult"))
+                result.put("rfidResult", input.rfidResult);
+            if (projection.has("highResolution"))
+                result.put("highResolution", input.highResolution);
+            if (projection.has("graphicResult"))
+                result.put("graphicResult", generateDocumentReaderGraphicResult(params.graphicResult(input), context, params.images));
+            if (projection.has("textResult"))
+                result.put("textResult", generateDocumentReaderTextResult(params.textResult(input), context));
+            if (projection.has("documentPosition"))
+                result.put("documentPosition", generateList(input.documentPosition, JSONConstructor::generateElementPosition));
+            if (projection.has("barcodePosition"))
+                result.put("barcodePosition", generateList(input.barcodePosition, JSONConstructor::generateElementPosition));
+            if (projection.has("mrzPosition"))
+                result.put("mrzPosition", generateList(input.mrzPosition, JSONConstructor::generateElementPosition));
+            if (projection.has("imageQuality"))
+                result.put("imageQuality", generateList(input.imageQuality, JSONConstructor::generateImageQualityGroup));
+            if (projection.has("rawResult"))
+                result.put("rawResult", input.rawResult);
+            if (projection.has("documentReaderNotification"))
+                result.put("documentReaderNotification", generateDocumentReaderNotification(input.documentReaderNotification));
+            if (projection.has("rfidSessionData"))
+                result.put("rfidSessionData", generateRFIDSessionData(params.rfidSessionData(input)));
+            if (projection.has("authenticityResult"))
+                result.put("authenticityResult", generateDocumentReaderAuthenticityResult(input.authenticityResult, context));
+            if (projection.has("barcodeResult"))
+                result.put("barcodeResult", generateDocumentReaderBarcodeResult(input.barcodeResult));
+            if (projection.has("documentType"))
+                result.put("documentType", generateList(input.documentType, JSONConstructor::generateDocumentReaderDocumentType));
+            if (projection.has("status"))
+                result.put("status", generateDocumentReaderResultsStatus(input.status));
+            if (projection.has("vdsncData"))
+                result.put("vdsncData", generateVDSNCData(input.vdsncData));
         } catch (JSONException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,141 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Method channel handlers by name, with the argument types they expect and per-method timings.
+class MethodRegistry<C> {
+    interface Handler<C> {
+        void handle(C callback) throws Exception;
+    }
+
+    static class ArgType {
+        static final ArgType INT = new ArgType("int", false, Integer.class);
+        static final ArgType BOOL = new ArgType("bool", false, Boolean.class);
+        static final ArgType STRING = new ArgType("String", false, String.class);
+        static final ArgType MAP = new ArgType("Map", false, Map.class);
+        static final ArgType LIST = new ArgType("List", false, List.class);
+        static final ArgType BYTES = new ArgType("Uint8List", false, byte[].class);
+        static final ArgType IMAGE = new ArgType("String or Uint8List", false, String.class, byte[].class);
+        static final ArgType ANY = new ArgType("non-null value", false, Object.class);
+        static final ArgType OPT_MAP = new ArgType("Map", true, Map.class);
+        static final ArgType OPT_LIST = new ArgType("List", true, List.class);
+        static final ArgType OPT_STRING = new ArgType("String", true, String.class);
+
+        private final String name;
+        private final boolean optional;
+        private final Class<?>[] classes;
+
+        private ArgType(String name, boolean optional, Class<?>... classes) {
+            this.name = name;
+            this.optional = optional;
+            this.classes = classes;
+        }
+
+        private boolean accepts(Object value) {
+            for (Class<?> type : classes)
+                if (type.isInstance(value))
+                    return true;
+            return false;
+        }
+    }
+
+    private static class Method<C> {
+        final Handler<C> handler;
+        final ArgType[] types;
+        long calls = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        long replies = 0;
+        long totalReplyNanos = 0;
+
+        Method(Handler<C> handler, ArgType[] types) {
+            this.handler = handler;
+            this.types = types;
+        }
+    }
+
+    private final Map<String, Method<C>> methods = new HashMap<>();
+
+    void register(String name, Handler<C> handler, ArgType... types) {
+        methods.put(name, new Method<>(handler, types));
+    }
+
+    boolean has(String name) {
+        return methods.containsKey(name);
+    }
+
+    Handler<C> handler(String name) {
+        return methods.get(name).handler;
+    }
+
+    // Returns a message describing the first argument that doesn't match, or null if all of them do.
+    String validate(String name, List<Object> args) {
+        ArgType[] types = methods.get(name).types;
+        for (int i = 0; i < types.length; i++) {
+            Object value = i < args.size() ? args.get(i) : null;
+            if (value == null) {
+                if (types[i].optional) continue;
+                return "argument " + i + " is missing, expected " + types[i].name;
+            }
+            if (!types[i].accepts(value))
+                return "argument " + i + " should be " + types[i].name + ", got " + value.getClass().getSimpleName();
+        }
+        return null;
+    }
+
+    // Time spent in the handler itself, on the thread it was dispatched to.
+    void recordCall(String name, long nanos) {
+        Method<C> method = methods.get(name);
+        synchronized (method) {
+            method.calls++;
+            method.totalNanos += nanos;
+            method.maxNanos = Math.max(method.maxNanos, nanos);
+        }
+    }
+
+    // Time from dispatch until the result was sent, for methods that reply asynchronously this includes the sdk work.
+    void recordReply(String name, long nanos) {
+        Method<C> method = methods.get(name);
+        synchronized (method) {
+            method.replies++;
+            method.totalReplyNanos += nanos;
+        }
+    }
+
+    JSONObject timings() throws JSONException {
+        JSONObject result = new JSONObject();
+        for (String name : new ArrayList<>(methods.keySet())) {
+            Method<C> method = methods.get(name);
+            synchronized (method) {
+                if (method.calls == 0) continue;
+                JSONObject timing = new JSONObject();
+                timing.put("calls", method.calls);
+                timing.put("totalMs", method.totalNanos / 1e6);
+                timing.put("averageMs", method.totalNanos / 1e6 / method.calls);
+                timing.put("maxMs", method.maxNanos / 1e6);
+                timing.put("replies", method.replies);
+                if (method.replies > 0)
+                    timing.put("averageReplyMs", method.totalReplyNanos / 1e6 / method.replies);
+                result.put(name, timing);
+            }
+        }
+        return result;
+    }
+
+    void resetTimings() {
+        for (Method<C> method : methods.values())
+            synchronized (method) {
+                method.calls = 0;
+                method.totalNanos = 0;
+                method.maxNanos = 0;
+                method.replies = 0;
+                method.totalReplyNanos = 0;
+            }
+    }
+}
@@ -0,0 +1,55 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Decodes the pages of a batch concurrently on a pool sized to the available cores.
+// Every decode holds its estimated bitmap size from a shared memory budget while it runs,
+// so large pages wait for each other instead of running out of memory together.
+class ParallelDecoder {
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int BUDGET_KB = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 4 / 1024);
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private static final Semaphore budget = new Semaphore(BUDGET_KB, true);
+
+    interface DecodeTask<T> {
+        T decode(int index) throws Exception;
+    }
+
+    static <T> List<T> decodeAll(int count, long estimatedBytes, DecodeTask<T> task) throws Exception {
+        List<T> result = new ArrayList<>();
+        if (count == 1) {
+            result.add(task.decode(0));
+            return result;
+        }
+        int permits = (int) Math.max(1, Math.min(BUDGET_KB, estimatedBytes / 1024));
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                budget.acquire(permits);
+                try {
+                    return task.decode(index);
+                } finally {
+                    budget.release(permits);
+                }
+            }));
+        }
+        try {
+            for (Future<T> future : futures)
+                result.add(future.get());
+        } catch (ExecutionException e) {
+            for (Future<T> future : futures)
+                future.cancel(true);
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            throw e;
+        }
+        return result;
+    }
+}
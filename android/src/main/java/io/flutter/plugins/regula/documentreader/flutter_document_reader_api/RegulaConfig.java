@@ -18,18 +18,469 @@ import android.widget.ImageView.ScaleType;
 import android.graphics.Typeface;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.Helpers.*;
 import static io.flutter.plugins.regula.documentreader.flutter_document_reader_api.JSONConstructor.*;
 
 class RegulaConfig {
-    static void setConfig(DocumentReader reader, JSONObject opts, Context context) throws JSONException {
+    // Values already applied to the reader, per section. setConfig only applies keys whose value differs,
+    // so repeating the same opts on every scan skips drawable decoding and applyImmediately.
+    private static final Map<String, Map<String, Object>> applied = new HashMap<>();
+
+    static synchronized void setConfig(DocumentReader reader, ConfigMap opts, Context context) throws JSONException {
+        ConfigMap customization = changedSection(opts, "customization");
+        if (customization != null) {
+            setCustomization(reader.customization(), customization, context);
+            markApplied("customization", customization);
+        }
+        ConfigMap functionality = changedSection(opts, "functionality");
+        if (functionality != null) {
+            setFunctionality(reader.functionality(), functionality);
+            markApplied("functionality", functionality);
+        }
+        ConfigMap processParams = changedSection(opts, "processParams");
+        if (processParams != null) {
+            setProcessParams(reader.processParams(), processParams);
+            markApplied("processParams", processParams);
+        }
+    }
+
+    // Keys the setters read together, the font is created with its style.
+    private static final String[][] keyGroups = {
+            {"statusTextFont", "statusTextFontStyle"},
+            {"resultStatusTextFont", "resultStatusTextFontStyle"}
+    };
+    private static final Map<String, ConfigMap> profiles = new HashMap<>();
+
+    // How setConfig reads each key, so registerProfile can reject a profile before it is ever applied.
+    private static class ValueType {
+        static final int BOOL = 0;
+        static final int NUMBER = 1;
+        static final int STRING = 2;
+        static final int MAP = 3;
+        static final int NUMBER_LIST = 4;
+        static final int STRING_LIST = 5;
+        static final int MAP_LIST = 6;
+        static final int SCALE_TYPE = 7;
+    }
+
+    private static final Map<String, Integer> functionalityTypes = new HashMap<>();
+
+    static {
+        functionalityTypes.put("pictureOnBoundsReady", ValueType.BOOL);
+        functionalityTypes.put("showTorchButton", ValueType.BOOL);
+        functionalityTypes.put("showCloseButton", ValueType.BOOL);
+        functionalityTypes.put("videoCaptureMotionControl", ValueType.BOOL);
+        functionalityTypes.put("showCaptureButton", ValueType.BOOL);
+        functionalityTypes.put("showChangeFrameButton", ValueType.BOOL);
+        functionalityTypes.put("showCaptureButtonDelayFromDetect", ValueType.NUMBER);
+        functionalityTypes.put("showCaptureButtonDelayFromStart", ValueType.NUMBER);
+        functionalityTypes.put("isOnlineMode", ValueType.BOOL);
+        functionalityTypes.put("databaseAutoupdate", ValueType.BOOL);
+        functionalityTypes.put("showSkipNextPageButton", ValueType.BOOL);
+        functionalityTypes.put("useAuthenticator", ValueType.BOOL);
+        functionalityTypes.put("skipFocusingFrames", ValueType.BOOL);
+        functionalityTypes.put("showCameraSwitchButton", ValueType.BOOL);
+        functionalityTypes.put("cameraFrame", ValueType.STRING);
+        functionalityTypes.put("serviceURL", ValueType.STRING);
+        functionalityTypes.put("btDeviceName", ValueType.STRING);
+        functionalityTypes.put("orientation", ValueType.NUMBER);
+        functionalityTypes.put("startDocReaderForResult", ValueType.BOOL);
+        functionalityTypes.put("captureMode", ValueType.NUMBER);
+        functionalityTypes.put("displayMetadata", ValueType.BOOL);
+        functionalityTypes.put("cameraSize", ValueType.MAP);
+        functionalityTypes.put("cameraMode", ValueType.NUMBER);
+        functionalityTypes.put("excludedCamera2Models", ValueType.STRING_LIST);
+        functionalityTypes.put("isZoomEnabled", ValueType.BOOL);
+        functionalityTypes.put("zoomFactor", ValueType.NUMBER);
+        functionalityTypes.put("isCameraTorchCheckDisabled", ValueType.BOOL);
+        functionalityTypes.put("recordScanningProcess", ValueType.BOOL);
+        functionalityTypes.put("manualMultipageMode", ValueType.BOOL);
+        functionalityTypes.put("exposure", ValueType.NUMBER);
+        functionalityTypes.put("rfidTimeout", ValueType.NUMBER);
+    }
+
+    private static final Map<String, Integer> customizationTypes = new HashMap<>();
+
+    static {
+        customizationTypes.put("status", ValueType.STRING);
+        customizationTypes.put("resultStatus", ValueType.STRING);
+        customizationTypes.put("cameraFrameDefaultColor", ValueType.STRING);
+        customizationTypes.put("cameraFrameActiveColor", ValueType.STRING);
+        customizationTypes.put("statusTextColor", ValueType.STRING);
+        customizationTypes.put("resultStatusTextColor", ValueType.STRING);
+        customizationTypes.put("resultStatusBackgroundColor", ValueType.STRING);
+        customizationTypes.put("multipageButtonBackgroundColor", ValueType.STRING);
+        customizationTypes.put("tintColor", ValueType.STRING);
+        customizationTypes.put("activityIndicatorColor", ValueType.STRING);
+        customizationTypes.put("showStatusMessages", ValueType.BOOL);
+        customizationTypes.put("showResultStatusMessages", ValueType.BOOL);
+        customizationTypes.put("showHelpAnimation", ValueType.BOOL);
+        customizationTypes.put("showNextPageAnimation", ValueType.BOOL);
+        customizationTypes.put("showBackgroundMask", ValueType.BOOL);
+        customizationTypes.put("cameraFrameBorderWidth", ValueType.NUMBER);
+        customizationTypes.put("statusTextSize", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameLineLength", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameShapeType", ValueType.NUMBER);
+        customizationTypes.put("resultStatusTextSize", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameOffsetWidth", ValueType.NUMBER);
+        customizationTypes.put("customLabelStatus", ValueType.STRING);
+        customizationTypes.put("multipageAnimationFrontImage", ValueType.STRING);
+        customizationTypes.put("multipageAnimationBackImage", ValueType.STRING);
+        customizationTypes.put("borderBackgroundImage", ValueType.STRING);
+        customizationTypes.put("helpAnimationImage", ValueType.STRING);
+        customizationTypes.put("statusPositionMultiplier", ValueType.NUMBER);
+        customizationTypes.put("resultStatusPositionMultiplier", ValueType.NUMBER);
+        customizationTypes.put("backgroundMaskAlpha", ValueType.NUMBER);
+        customizationTypes.put("statusTextFont", ValueType.STRING);
+        customizationTypes.put("statusTextFontStyle", ValueType.NUMBER);
+        customizationTypes.put("resultStatusTextFont", ValueType.STRING);
+        customizationTypes.put("resultStatusTextFontStyle", ValueType.NUMBER);
+        customizationTypes.put("helpAnimationImageScaleType", ValueType.SCALE_TYPE);
+        customizationTypes.put("multipageAnimationFrontImageScaleType", ValueType.SCALE_TYPE);
+        customizationTypes.put("multipageAnimationBackImageScaleType", ValueType.SCALE_TYPE);
+        customizationTypes.put("helpAnimationImageMatrix", ValueType.NUMBER_LIST);
+        customizationTypes.put("multipageAnimationFrontImageMatrix", ValueType.NUMBER_LIST);
+        customizationTypes.put("multipageAnimationBackImageMatrix", ValueType.NUMBER_LIST);
+        customizationTypes.put("customStatusPositionMultiplier", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameVerticalPositionMultiplier", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameLandscapeAspectRatio", ValueType.NUMBER);
+        customizationTypes.put("cameraFramePortraitAspectRatio", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameCornerRadius", ValueType.NUMBER);
+        customizationTypes.put("cameraFrameLineCap", ValueType.NUMBER);
+        customizationTypes.put("closeButtonImage", ValueType.STRING);
+        customizationTypes.put("captureButtonImage", ValueType.STRING);
+        customizationTypes.put("changeFrameCollapseButtonImage", ValueType.STRING);
+        customizationTypes.put("changeFrameExpandButtonImage", ValueType.STRING);
+        customizationTypes.put("cameraSwitchButtonImage", ValueType.STRING);
+        customizationTypes.put("torchButtonOnImage", ValueType.STRING);
+        customizationTypes.put("torchButtonOffImage", ValueType.STRING);
+        customizationTypes.put("changeFrameButtonExpandImage", ValueType.STRING);
+        customizationTypes.put("changeFrameButtonCollapseImage", ValueType.STRING);
+        customizationTypes.put("toolbarSize", ValueType.NUMBER);
+        customizationTypes.put("statusBackgroundColor", ValueType.STRING);
+        customizationTypes.put("hologramAnimationImage", ValueType.STRING);
+        customizationTypes.put("hologramAnimationPositionMultiplier", ValueType.NUMBER);
+        customizationTypes.put("hologramAnimationImageMatrix", ValueType.NUMBER_LIST);
+        customizationTypes.put("hologramAnimationImageScaleType", ValueType.SCALE_TYPE);
+        customizationTypes.put("uiCustomizationLayer", ValueType.MAP);
+    }
+
+    private static final Map<String, Integer> processParamsTypes = new HashMap<>();
+
+    static {
+        processParamsTypes.put("multipageProcessing", ValueType.BOOL);
+        processParamsTypes.put("dateFormat", ValueType.STRING);
+        processParamsTypes.put("logs", ValueType.BOOL);
+        processParamsTypes.put("debugSaveImages", ValueType.BOOL);
+        processParamsTypes.put("debugSaveLogs", ValueType.BOOL);
+        processParamsTypes.put("returnUncroppedImage", ValueType.BOOL);
+        processParamsTypes.put("customParams", ValueType.MAP);
+        processParamsTypes.put("uvTorchEnabled", ValueType.BOOL);
+        processParamsTypes.put("debugSaveCroppedImages", ValueType.BOOL);
+        processParamsTypes.put("scenario", ValueType.STRING);
+        processParamsTypes.put("measureSystem", ValueType.NUMBER);
+        processParamsTypes.put("captureButtonScenario", ValueType.STRING);
+        processParamsTypes.put("disableFocusingCheck", ValueType.BOOL);
+        processParamsTypes.put("debugSaveRFIDSession", ValueType.BOOL);
+        processParamsTypes.put("doublePageSpread", ValueType.BOOL);
+        processParamsTypes.put("barcodeParserType", ValueType.NUMBER);
+        processParamsTypes.put("documentIDList", ValueType.NUMBER_LIST);
+        processParamsTypes.put("fieldTypesFilter", ValueType.NUMBER_LIST);
+        processParamsTypes.put("barcodeTypes", ValueType.NUMBER_LIST);
+        processParamsTypes.put("faceMetaData", ValueType.MAP_LIST);
+        processParamsTypes.put("timeout", ValueType.NUMBER);
+        processParamsTypes.put("timeoutFromFirstDetect", ValueType.NUMBER);
+        processParamsTypes.put("timeoutFromFirstDocType", ValueType.NUMBER);
+        processParamsTypes.put("manualCrop", ValueType.BOOL);
+        processParamsTypes.put("perspectiveAngle", ValueType.NUMBER);
+        processParamsTypes.put("integralImage", ValueType.BOOL);
+        processParamsTypes.put("minDPI", ValueType.NUMBER);
+        processParamsTypes.put("returnCroppedBarcode", ValueType.BOOL);
+        processParamsTypes.put("checkHologram", ValueType.BOOL);
+        processParamsTypes.put("checkRequiredTextFields", ValueType.BOOL);
+        processParamsTypes.put("depersonalizeLog", ValueType.BOOL);
+        processParamsTypes.put("resultTypeOutput", ValueType.NUMBER_LIST);
+        processParamsTypes.put("generateDoublePageSpreadImage", ValueType.BOOL);
+        processParamsTypes.put("imageDpiOutMax", ValueType.NUMBER);
+        processParamsTypes.put("alreadyCropped", ValueType.BOOL);
+        processParamsTypes.put("forceDocID", ValueType.NUMBER);
+        processParamsTypes.put("matchTextFieldMask", ValueType.BOOL);
+        processParamsTypes.put("fastDocDetect", ValueType.BOOL);
+        processParamsTypes.put("updateOCRValidityByGlare", ValueType.BOOL);
+        processParamsTypes.put("imageQA", ValueType.MAP);
+        processParamsTypes.put("forceDocFormat", ValueType.NUMBER);
+        processParamsTypes.put("noGraphics", ValueType.BOOL);
+        processParamsTypes.put("documentAreaMin", ValueType.NUMBER);
+        processParamsTypes.put("multiDocOnImage", ValueType.BOOL);
+        processParamsTypes.put("shiftExpiryDate", ValueType.NUMBER);
+        processParamsTypes.put("minimalHolderAge", ValueType.NUMBER);
+        processParamsTypes.put("mrzFormatsFilter", ValueType.STRING_LIST);
+        processParamsTypes.put("forceReadMrzBeforeLocate", ValueType.BOOL);
+        processParamsTypes.put("parseBarcodes", ValueType.BOOL);
+        processParamsTypes.put("shouldReturnPackageForReprocess", ValueType.BOOL);
+    }
+
+    // Checked here once, so applying a profile later can only fail the way setConfig itself would.
+    static synchronized void registerProfile(String name, ConfigMap opts) throws JSONException {
+        checkConfig(opts);
+        profiles.put(name, opts);
+    }
+
+    // Batch jobs recognize without showing the scanner, so they take only the sections currentValues can read back in full.
+    static void checkTemporaryConfig(ConfigMap opts) throws JSONException {
         if (opts.has("customization"))
-            setCustomization(reader.customization(), opts.getJSONObject("customization"), context);
-        if (opts.has("functionality"))
-            setFunctionality(reader.functionality(), opts.getJSONObject("functionality"));
-        if (opts.has("processParams"))
-            setProcessParams(reader.processParams(), opts.getJSONObject("processParams"));
+            throw new JSONException("customization can't be set for a single job, only functionality and processParams");
+        checkConfig(opts);
+    }
+
+    private static void checkConfig(ConfigMap opts) throws JSONException {
+        for (String section : opts.asMap().keySet()) {
+            Map<String, Integer> types = section.equals("customization") ? customizationTypes : section.equals("functionality") ? functionalityTypes : section.equals("processParams") ? processParamsTypes : null;
+            if (types == null)
+                throw new JSONException("Unknown config section: " + section);
+            ConfigMap values = opts.getMap(section);
+            for (String key : values.asMap().keySet()) {
+                Integer type = types.get(key);
+                if (type == null)
+                    throw new JSONException("Unknown " + section + " key: " + key);
+                if (values.has(key))
+                    checkValue(section + "." + key, type, values.get(key));
+            }
+        }
+    }
+
+    private static void checkValue(String path, int type, Object value) throws JSONException {
+        switch (type) {
+            case ValueType.BOOL:
+                if (!(value instanceof Boolean))
+                    throw new JSONException(path + " should be a bool");
+                break;
+            case ValueType.NUMBER:
+                if (!(value instanceof Number))
+                    throw new JSONException(path + " should be a number");
+                break;
+            case ValueType.STRING:
+                if (!(value instanceof String))
+                    throw new JSONException(path + " should be a String");
+                break;
+            case ValueType.SCALE_TYPE:
+                try {
+                    ScaleType.valueOf(String.valueOf(value));
+                } catch (IllegalArgumentException e) {
+                    throw new JSONException(path + " should be a ScaleType name, got " + value);
+                }
+                break;
+            case ValueType.MAP:
+                if (!(value instanceof Map))
+                    throw new JSONException(path + " should be a Map");
+                break;
+            default:
+                if (!(value instanceof List))
+                    throw new JSONException(path + " should be a List");
+                List<?> list = (List<?>) value;
+                for (int i = 0; i < list.size(); i++)
+                    checkValue(path + "[" + i + "]", type == ValueType.NUMBER_LIST ? ValueType.NUMBER : type == ValueType.STRING_LIST ? ValueType.STRING : ValueType.MAP, list.get(i));
+        }
+    }
+
+    // Goes through setConfig, so only keys that differ from the currently applied values are set.
+    static synchronized void applyProfile(DocumentReader reader, String name, Context context) throws JSONException {
+        ConfigMap profile = profiles.get(name);
+        if (profile == null)
+            throw new JSONException("Unknown config profile: " + name);
+        setConfig(reader, profile, context);
+    }
+
+    // Must be called whenever the reader's config changes behind setConfig's back.
+    static synchronized void resetApplied() {
+        applied.clear();
+    }
+
+    private static ConfigMap changedSection(ConfigMap opts, String section) throws JSONException {
+        if (!opts.has(section)) return null;
+        Map<String, Object> last = applied.get(section);
+        ConfigMap changed = last == null ? opts.getMap(section) : opts.getMap(section).changedSince(last, keyGroups);
+        return changed.isEmpty() ? null : changed;
+    }
+
+    private static void markApplied(String section, ConfigMap changed) {
+        Map<String, Object> last = applied.get(section);
+        if (last == null) applied.put(section, last = new HashMap<>());
+        last.putAll(changed.asMap());
+    }
+
+    interface Getter<T> {
+        Object get(T input) throws JSONException;
+    }
+
+    // One getter per key, so getConfigValues only reads what was asked for.
+    private static final Map<String, Getter<Functionality>> functionalityGetters = new LinkedHashMap<>();
+
+    static {
+        functionalityGetters.put("pictureOnBoundsReady", functionality -> functionality.isPictureOnBoundsReady());
+        functionalityGetters.put("showTorchButton", functionality -> functionality.isShowTorchButton());
+        functionalityGetters.put("showCloseButton", functionality -> functionality.isShowCloseButton());
+        functionalityGetters.put("videoCaptureMotionControl", functionality -> functionality.isVideoCaptureMotionControl());
+        functionalityGetters.put("showCaptureButton", functionality -> functionality.isShowCaptureButton());
+        functionalityGetters.put("showChangeFrameButton", functionality -> functionality.isShowChangeFrameButton());
+        functionalityGetters.put("showCaptureButtonDelayFromDetect", functionality -> functionality.getShowCaptureButtonDelayFromDetect());
+        functionalityGetters.put("showCaptureButtonDelayFromStart", functionality -> functionality.getShowCaptureButtonDelayFromStart());
+        functionalityGetters.put("isOnlineMode", functionality -> functionality.isOnlineMode());
+        functionalityGetters.put("databaseAutoupdate", functionality -> functionality.isDatabaseAutoupdate());
+        functionalityGetters.put("showSkipNextPageButton", functionality -> functionality.isShowSkipNextPageButton());
+        functionalityGetters.put("useAuthenticator", functionality -> functionality.isUseAuthenticator());
+        functionalityGetters.put("skipFocusingFrames", functionality -> functionality.isSkipFocusingFrames());
+        functionalityGetters.put("showCameraSwitchButton", functionality -> functionality.isShowCameraSwitchButton());
+        functionalityGetters.put("cameraFrame", functionality -> functionality.getCameraFrame());
+        functionalityGetters.put("serviceURL", functionality -> functionality.getServiceURL());
+        functionalityGetters.put("btDeviceName", functionality -> functionality.getBtDeviceName());
+        functionalityGetters.put("orientation", functionality -> functionality.getOrientation());
+        functionalityGetters.put("BTDeviceApiPresent", functionality -> functionality.isBTDeviceApiPresent());
+        functionalityGetters.put("startDocReaderForResult", functionality -> functionality.getStartDocReaderForResult());
+        functionalityGetters.put("captureMode", functionality -> functionality.getCaptureMode());
+        functionalityGetters.put("displayMetadata", functionality -> functionality.isDisplayMetaData());
+        functionalityGetters.put("cameraSize", functionality -> new JSONObject() {{
+            put("width", functionality.getCameraWidth());
+            put("height", functionality.getCameraHeight());
+        }});
+        functionalityGetters.put("cameraMode", functionality -> functionality.getCameraMode());
+        functionalityGetters.put("excludedCamera2Models", functionality -> generateList(functionality.getExcludedCamera2Models()));
+        functionalityGetters.put("isZoomEnabled", functionality -> functionality.isZoomEnabled());
+        functionalityGetters.put("zoomFactor", functionality -> functionality.getZoomFactor());
+        functionalityGetters.put("isCameraTorchCheckDisabled", functionality -> functionality.isCameraTorchCheckDisabled());
+        functionalityGetters.put("recordScanningProcess", functionality -> functionality.doRecordProcessingVideo());
+        functionalityGetters.put("manualMultipageMode", functionality -> functionality.isManualMultipageMode());
+        functionalityGetters.put("exposure", functionality -> functionality.getExposure());
+        functionalityGetters.put("rfidTimeout", functionality -> functionality.getRfidTimeout());
+    }
+
+    private static final Map<String, Getter<ParamsCustomization>> customizationGetters = new LinkedHashMap<>();
+
+    static {
+        customizationGetters.put("status", customization -> customization.getStatus());
+        customizationGetters.put("resultStatus", customization -> customization.getResultStatus());
+        customizationGetters.put("cameraFrameDefaultColor", customization -> customization.getCameraFrameDefaultColor());
+        customizationGetters.put("cameraFrameActiveColor", customization -> customization.getCameraFrameActiveColor());
+        customizationGetters.put("statusTextColor", customization -> customization.getStatusTextColor());
+        customizationGetters.put("resultStatusTextColor", customization -> customization.getResultStatusTextColor());
+        customizationGetters.put("resultStatusBackgroundColor", customization -> customization.getResultStatusBackgroundColor());
+        customizationGetters.put("multipageButtonBackgroundColor", customization -> customization.getMultipageButtonBackgroundColor());
+        customizationGetters.put("tintColor", customization -> customization.getTintColor());
+        customizationGetters.put("activityIndicatorColor", customization -> customization.getActivityIndicatorColor());
+        customizationGetters.put("showStatusMessages", customization -> customization.isShowStatusMessages());
+        customizationGetters.put("showResultStatusMessages", customization -> customization.isShowResultStatusMessages());
+        customizationGetters.put("showHelpAnimation", customization -> customization.isShowHelpAnimation());
+        customizationGetters.put("showNextPageAnimation", customization -> customization.isShowNextPageAnimation());
+        customizationGetters.put("showBackgroundMask", customization -> customization.isShowBackgroundMask());
+        customizationGetters.put("cameraFrameBorderWidth", customization -> customization.getCameraFrameBorderWidth());
+        customizationGetters.put("statusTextSize", customization -> customization.getStatusTextSize());
+        customizationGetters.put("cameraFrameLineLength", customization -> customization.getCameraFrameLineLength());
+        customizationGetters.put("cameraFrameShapeType", customization -> customization.getCameraFrameShapeType());
+        customizationGetters.put("resultStatusTextSize", customization -> customization.getResultStatusTextSize());
+        customizationGetters.put("multipageAnimationFrontImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getMultipageAnimationFrontImage())));
+        customizationGetters.put("multipageAnimationBackImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getMultipageAnimationBackImage())));
+        customizationGetters.put("borderBackgroundImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getBorderBackgroundImage())));
+        customizationGetters.put("helpAnimationImageScaleType", customization -> customization.getHelpAnimationImageScaleType());
+        customizationGetters.put("multipageAnimationFrontImageScaleType", customization -> customization.getMultipageAnimationFrontImageScaleType());
+        customizationGetters.put("multipageAnimationBackImageScaleType", customization -> customization.getMultipageAnimationBackImageScaleType());
+        customizationGetters.put("helpAnimationImageMatrix", customization -> customization.getHelpAnimationImageMatrix());
+        customizationGetters.put("multipageAnimationFrontImageMatrix", customization -> customization.getMultipageAnimationFrontImageMatrix());
+        customizationGetters.put("multipageAnimationBackImageMatrix", customization -> customization.getMultipageAnimationBackImageMatrix());
+        customizationGetters.put("statusTextFont", customization -> customization.getStatusTextFont());
+        customizationGetters.put("resultStatusTextFont", customization -> customization.getResultStatusTextFont());
+        customizationGetters.put("statusPositionMultiplier", customization -> customization.getStatusPositionMultiplier());
+        customizationGetters.put("resultStatusPositionMultiplier", customization -> customization.getResultStatusPositionMultiplier());
+        customizationGetters.put("backgroundMaskAlpha", customization -> customization.getBackgroundMaskAlpha());
+        customizationGetters.put("helpAnimationImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getHelpAnimationImageDrawable())));
+        customizationGetters.put("cameraFrameOffsetWidth", customization -> customization.getCameraFrameOffsetWidth());
+        customizationGetters.put("customLabelStatus", customization -> customization.getCustomLabelStatus().toString());
+        customizationGetters.put("customStatusPositionMultiplier", customization -> customization.getCustomStatusPositionMultiplier());
+        customizationGetters.put("cameraFrameVerticalPositionMultiplier", customization -> customization.getCameraFrameVerticalPositionMultiplier());
+        customizationGetters.put("cameraFrameLandscapeAspectRatio", customization -> customization.getCameraFrameLandscapeAspectRatio());
+        customizationGetters.put("cameraFramePortraitAspectRatio", customization -> customization.getCameraFramePortraitAspectRatio());
+        customizationGetters.put("cameraFrameCornerRadius", customization -> customization.getCameraFrameCornerRadius());
+        customizationGetters.put("cameraFrameLineCap", customization -> customization.getCameraFrameLineCap().toString());
+        customizationGetters.put("closeButtonImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getCloseButtonDrawable())));
+        customizationGetters.put("captureButtonImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getCaptureButtonDrawable())));
+        customizationGetters.put("changeFrameCollapseButtonImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameCollapseButtonDrawable())));
+        customizationGetters.put("changeFrameExpandButtonImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameExpandButtonDrawable())));
+        customizationGetters.put("cameraSwitchButtonImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getCameraSwitchButtonDrawable())));
+        customizationGetters.put("torchButtonOnImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getTorchImageOnDrawable())));
+        customizationGetters.put("torchButtonOffImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getTorchImageOffDrawable())));
+        customizationGetters.put("changeFrameButtonExpandImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameExpandButtonDrawable())));
+        customizationGetters.put("changeFrameButtonCollapseImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameCollapseButtonDrawable())));
+        customizationGetters.put("toolbarSize", customization -> customization.getToolbarSize());
+        customizationGetters.put("statusBackgroundColor", customization -> customization.getStatusBackgroundColor());
+        customizationGetters.put("hologramAnimationImage", customization -> bitmapToBase64String(bitmapFromDrawable(customization.getHologramAnimationImage())));
+        customizationGetters.put("hologramAnimationPositionMultiplier", customization -> customization.getHologramAnimationPositionMultiplier());
+        customizationGetters.put("hologramAnimationImageMatrix", customization -> customization.getHologramAnimationImageMatrix());
+        customizationGetters.put("hologramAnimationImageScaleType", customization -> customization.getHologramAnimationImageScaleType());
+        customizationGetters.put("uiCustomizationLayer", customization -> customization.getUiCustomizationLayer());
+    }
+
+    private static final Map<String, Getter<ProcessParam>> processParamsGetters = new LinkedHashMap<>();
+
+    static {
+        processParamsGetters.put("documentIDList", processParams -> processParams.documentIDList != null ? generateIntArray(processParams.documentIDList) : null);
+        processParamsGetters.put("barcodeTypes", processParams -> processParams.doBarcodes != null ? generateArray(processParams.doBarcodes) : null);
+        processParamsGetters.put("fieldTypesFilter", processParams -> processParams.fieldTypesFilter != null ? generateIntArray(processParams.fieldTypesFilter) : null);
+        processParamsGetters.put("faceMetaData", processParams -> processParams.faceMetaData != null ? generateArray(processParams.faceMetaData, JSONConstructor::generateFaceMetaData) : null);
+        processParamsGetters.put("scenario", processParams -> processParams.scenario);
+        processParamsGetters.put("measureSystem", processParams -> processParams.measureSystem);
+        processParamsGetters.put("uvTorchEnabled", processParams -> processParams.uvTorchEnabled);
+        processParamsGetters.put("debugSaveImages", processParams -> true);
+        processParamsGetters.put("debugSaveLogs", processParams -> processParams.debugSaveLogs);
+        processParamsGetters.put("multipageProcessing", processParams -> processParams.multipageProcessing);
+        processParamsGetters.put("dateFormat", processParams -> processParams.dateFormat);
+        processParamsGetters.put("debugSaveCroppedImages", processParams -> processParams.debugSaveCroppedImages);
+        processParamsGetters.put("sessionLogFolder", processParams -> processParams.sessionLogFolder);
+        processParamsGetters.put("disableFocusingCheck", processParams -> processParams.disableFocusingCheck);
+        processParamsGetters.put("captureButtonScenario", processParams -> processParams.captureButtonScenario);
+        processParamsGetters.put("returnUncroppedImage", processParams -> processParams.returnUncroppedImage);
+        processParamsGetters.put("customParams", processParams -> processParams.customParams != null ? processParams.customParams.toString() : new JSONArray());
+        processParamsGetters.put("debugSaveRFIDSession", processParams -> processParams.debugSaveRFIDSession);
+        processParamsGetters.put("barcodeParserType", processParams -> processParams.barcodeParserType);
+        processParamsGetters.put("doublePageSpread", processParams -> processParams.doublePageSpread);
+        processParamsGetters.put("timeout", processParams -> processParams.timeout);
+        processParamsGetters.put("timeoutFromFirstDetect", processParams -> processParams.timeoutFromFirstDetect);
+        processParamsGetters.put("timeoutFromFirstDocType", processParams -> processParams.timeoutFromFirstDocType);
+        processParamsGetters.put("manualCrop", processParams -> processParams.manualCrop);
+        processParamsGetters.put("perspectiveAngle", processParams -> processParams.perspectiveAngle);
+        processParamsGetters.put("integralImage", processParams -> processParams.integralImage);
+        processParamsGetters.put("minDPI", processParams -> processParams.minDPI);
+        processParamsGetters.put("logs", processParams -> processParams.isLogEnable());
+        processParamsGetters.put("returnCroppedBarcode", processParams -> processParams.returnCroppedBarcode);
+        processParamsGetters.put("checkHologram", processParams -> processParams.checkHologram);
+        processParamsGetters.put("checkRequiredTextFields", processParams -> processParams.checkRequiredTextFields);
+        processParamsGetters.put("depersonalizeLog", processParams -> processParams.depersonalizeLog);
+        processParamsGetters.put("resultTypeOutput", processParams -> processParams.resultTypeOutput);
+        processParamsGetters.put("generateDoublePageSpreadImage", processParams -> processParams.generateDoublePageSpreadImage);
+        processParamsGetters.put("imageDpiOutMax", processParams -> processParams.imageDpiOutMax);
+        processParamsGetters.put("alreadyCropped", processParams -> processParams.alreadyCropped);
+        processParamsGetters.put("forceDocID", processParams -> processParams.forceDocID);
+        processParamsGetters.put("matchTextFieldMask", processParams -> processParams.matchTextFieldMask);
+        processParamsGetters.put("fastDocDetect", processParams -> processParams.fastDocDetect);
+        processParamsGetters.put("updateOCRValidityByGlare", processParams -> processParams.updateOCRValidityByGlare);
+        processParamsGetters.put("imageQA", processParams -> processParams.imageQA != null ? processParams.imageQA.toJsonObject() : null);
+        processParamsGetters.put("forceDocFormat", processParams -> processParams.forceDocFormat);
+        processParamsGetters.put("noGraphics", processParams -> processParams.noGraphics);
+        processParamsGetters.put("documentAreaMin", processParams -> processParams.documentAreaMin);
+        processParamsGetters.put("multiDocOnImage", processParams -> processParams.multiDocOnImage);
+        processParamsGetters.put("shiftExpiryDate", processParams -> processParams.shiftExpiryDate);
+        processParamsGetters.put("minimalHolderAge", processParams -> processParams.minimalHolderAge);
+        processParamsGetters.put("mrzFormatsFilter", processParams -> processParams.mrzFormatsFilter != null ? generateArray(processParams.mrzFormatsFilter) : null);
+        processParamsGetters.put("forceReadMrzBeforeLocate", processParams -> processParams.forceReadMrzBeforeLocate);
+        processParamsGetters.put("parseBarcodes", processParams -> processParams.parseBarcodes);
+        processParamsGetters.put("shouldReturnPackageForReprocess", processParams -> processParams.shouldReturnPackageForReprocess);
     }
 
     static JSONObject getConfig(DocumentReader reader) throws JSONException {
@@ -41,7 +492,86 @@ class RegulaConfig {
         return object;
     }
 
-    private static void setFunctionality(Functionality functionality, JSONObject opts) throws JSONException {
+    private static final List<String> SECTIONS = Arrays.asList("customization", "functionality", "processParams");
+
+    // Only the requested sections, and within them only the requested keys, as codec values rather than a JSON string.
+    // Null sections or keys means all of them.
+    static Map<String, Object> getConfigValues(DocumentReader reader, List<String> sections, List<String> keys) throws JSONException {
+        Map<String, Object> result = new HashMap<>();
+        for (String section : sections != null ? sections : SECTIONS) {
+            if (section.equals("customization"))
+                result.put(section, getSectionValues(customizationGetters, reader.customization(), keys));
+            if (section.equals("functionality"))
+                result.put(section, getSectionValues(functionalityGetters, reader.functionality(), keys));
+            if (section.equals("processParams"))
+                result.put(section, getSectionValues(processParamsGetters, reader.processParams(), keys));
+        }
+        return result;
+    }
+
+    // What the reader has now for every key opts sets, so setConfig can put it back once a temporary config is done.
+    // setConfig can't clear a key, so one without a current value is rejected before anything is changed.
+    @SuppressWarnings("unchecked")
+    static synchronized ConfigMap currentValues(DocumentReader reader, ConfigMap opts) throws JSONException {
+        Map<String, Object> result = new HashMap<>();
+        for (String section : opts.asMap().keySet()) {
+            ConfigMap values = opts.getMap(section);
+            List<String> keys = new ArrayList<>();
+            for (String key : values.asMap().keySet())
+                if (values.has(key))
+                    keys.add(key);
+            Map<String, Object> current = (Map<String, Object>) getConfigValues(reader, Collections.singletonList(section), keys).get(section);
+            for (String key : keys)
+                if (current == null || !current.containsKey(key))
+                    throw new JSONException(section + "." + key + " has no current value to restore");
+            result.put(section, current);
+        }
+        return new ConfigMap(result);
+    }
+
+    private static <T> JSONObject getSection(Map<String, Getter<T>> getters, T input) throws JSONException {
+        JSONObject object = new JSONObject();
+        for (Map.Entry<String, Getter<T>> entry : getters.entrySet())
+            object.put(entry.getKey(), entry.getValue().get(input));
+        return object;
+    }
+
+    // Keys the section doesn't have are skipped, as are null values, matching the JSON form.
+    private static <T> Map<String, Object> getSectionValues(Map<String, Getter<T>> getters, T input, List<String> keys) throws JSONException {
+        Map<String, Object> result = new HashMap<>();
+        for (String key : keys != null ? keys : getters.keySet()) {
+            Getter<T> getter = getters.get(key);
+            if (getter == null) continue;
+            Object value = codecValue(getter.get(input));
+            if (value != null) result.put(key, value);
+        }
+        return result;
+    }
+
+    private static Object codecValue(Object value) throws JSONException {
+        if (value == null || value == JSONObject.NULL) return null;
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            Map<String, Object> result = new HashMap<>();
+            for (Iterator<String> keys = object.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                result.put(key, codecValue(object.get(key)));
+            }
+            return result;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            List<Object> result = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++)
+                result.add(codecValue(array.get(i)));
+            return result;
+        }
+        if (value instanceof Float) return ((Float) value).doubleValue();
+        if (value instanceof Long || value instanceof Integer || value instanceof Double || value instanceof Boolean || value instanceof String) return value;
+        return value.toString();
+    }
+
+    private static void setFunctionality(Functionality functionality, ConfigMap opts) throws JSONException {
         Functionality.FunctionalityEditor editor = functionality.edit();
         if (opts.has("pictureOnBoundsReady"))
             editor.setPictureOnBoundsReady(opts.getBoolean("pictureOnBoundsReady"));
@@ -86,7 +616,7 @@ class RegulaConfig {
         if (opts.has("displayMetadata"))
             editor.setDisplayMetadata(opts.getBoolean("displayMetadata"));
         if (opts.has("cameraSize"))
-            editor.setCameraSize(opts.getJSONObject("cameraSize").getInt("width"), opts.getJSONObject("cameraSize").getInt("height"));
+            editor.setCameraSize(opts.getMap("cameraSize").getInt("width"), opts.getMap("cameraSize").getInt("height"));
         if (opts.has("cameraMode"))
             editor.setCameraMode(opts.getInt("cameraMode"));
         if (opts.has("excludedCamera2Models"))
@@ -109,7 +639,7 @@ class RegulaConfig {
         editor.apply();
     }
 
-    private static void setProcessParams(ProcessParam processParams, JSONObject opts) throws JSONException {
+    private static void setProcessParams(ProcessParam processParams, ConfigMap opts) throws JSONException {
         if (opts.has("multipageProcessing"))
             processParams.multipageProcessing = opts.getBoolean("multipageProcessing");
         if (opts.has("dateFormat"))
@@ -215,7 +745,7 @@ class RegulaConfig {
             processParams.shouldReturnPackageForReprocess = opts.getBoolean("shouldReturnPackageForReprocess");
     }
 
-    private static void setCustomization(ParamsCustomization customization, JSONObject opts, Context context) throws JSONException {
+    private static void setCustomization(ParamsCustomization customization, ConfigMap opts, Context context) throws JSONException {
         ParamsCustomization.CustomizationEditor editor = customization.edit();
         if (opts.has("status"))
             editor.setStatus(opts.getString("status"));
@@ -340,169 +870,18 @@ class RegulaConfig {
     }
 
     private static JSONObject getFunctionality(Functionality functionality) throws JSONException {
-        JSONObject object = new JSONObject();
-        object.put("pictureOnBoundsReady", functionality.isPictureOnBoundsReady());
-        object.put("showTorchButton", functionality.isShowTorchButton());
-        object.put("showCloseButton", functionality.isShowCloseButton());
-        object.put("videoCaptureMotionControl", functionality.isVideoCaptureMotionControl());
-        object.put("showCaptureButton", functionality.isShowCaptureButton());
-        object.put("showChangeFrameButton", functionality.isShowChangeFrameButton());
-        object.put("showCaptureButtonDelayFromDetect", functionality.getShowCaptureButtonDelayFromDetect());
-        object.put("showCaptureButtonDelayFromStart", functionality.getShowCaptureButtonDelayFromStart());
-        object.put("isOnlineMode", functionality.isOnlineMode());
-        object.put("databaseAutoupdate", functionality.isDatabaseAutoupdate());
-        object.put("showSkipNextPageButton", functionality.isShowSkipNextPageButton());
-        object.put("useAuthenticator", functionality.isUseAuthenticator());
-        object.put("skipFocusingFrames", functionality.isSkipFocusingFrames());
-        object.put("showCameraSwitchButton", functionality.isShowCameraSwitchButton());
-        object.put("cameraFrame", functionality.getCameraFrame());
-        object.put("serviceURL", functionality.getServiceURL());
-        object.put("btDeviceName", functionality.getBtDeviceName());
-        object.put("orientation", functionality.getOrientation());
-        object.put("BTDeviceApiPresent", functionality.isBTDeviceApiPresent());
-        object.put("startDocReaderForResult", functionality.getStartDocReaderForResult());
-        object.put("captureMode", functionality.getCaptureMode());
-        object.put("displayMetadata", functionality.isDisplayMetaData());
-        object.put("cameraSize", new JSONObject() {{
-            put("width", functionality.getCameraWidth());
-            put("height", functionality.getCameraHeight());
-        }});
-        object.put("cameraMode", functionality.getCameraMode());
-        object.put("excludedCamera2Models", generateList(functionality.getExcludedCamera2Models()));
-        object.put("isZoomEnabled", functionality.isZoomEnabled());
-        object.put("zoomFactor", functionality.getZoomFactor());
-        object.put("isCameraTorchCheckDisabled", functionality.isCameraTorchCheckDisabled());
-        object.put("recordScanningProcess", functionality.doRecordProcessingVideo());
-        object.put("manualMultipageMode", functionality.isManualMultipageMode());
-        object.put("exposure", functionality.getExposure());
-        object.put("rfidTimeout", functionality.getRfidTimeout());
-
-        return object;
+        return getSection(functionalityGetters, functionality);
     }
 
     private static JSONObject getCustomization(ParamsCustomization customization) throws JSONException {
-        JSONObject object = new JSONObject();
-        object.put("status", customization.getStatus());
-        object.put("resultStatus", customization.getResultStatus());
-        object.put("cameraFrameDefaultColor", customization.getCameraFrameDefaultColor());
-        object.put("cameraFrameActiveColor", customization.getCameraFrameActiveColor());
-        object.put("statusTextColor", customization.getStatusTextColor());
-        object.put("resultStatusTextColor", customization.getResultStatusTextColor());
-        object.put("resultStatusBackgroundColor", customization.getResultStatusBackgroundColor());
-        object.put("multipageButtonBackgroundColor", customization.getMultipageButtonBackgroundColor());
-        object.put("tintColor", customization.getTintColor());
-        object.put("activityIndicatorColor", customization.getActivityIndicatorColor());
-        object.put("showStatusMessages", customization.isShowStatusMessages());
-        object.put("showResultStatusMessages", customization.isShowResultStatusMessages());
-        object.put("showHelpAnimation", customization.isShowHelpAnimation());
-        object.put("showNextPageAnimation", customization.isShowNextPageAnimation());
-        object.put("showBackgroundMask", customization.isShowBackgroundMask());
-        object.put("cameraFrameBorderWidth", customization.getCameraFrameBorderWidth());
-        object.put("statusTextSize", customization.getStatusTextSize());
-        object.put("cameraFrameLineLength", customization.getCameraFrameLineLength());
-        object.put("cameraFrameShapeType", customization.getCameraFrameShapeType());
-        object.put("resultStatusTextSize", customization.getResultStatusTextSize());
-        object.put("multipageAnimationFrontImage", bitmapToBase64String(bitmapFromDrawable(customization.getMultipageAnimationFrontImage())));
-        object.put("multipageAnimationBackImage", bitmapToBase64String(bitmapFromDrawable(customization.getMultipageAnimationBackImage())));
-        object.put("borderBackgroundImage", bitmapToBase64String(bitmapFromDrawable(customization.getBorderBackgroundImage())));
-        object.put("helpAnimationImageScaleType", customization.getHelpAnimationImageScaleType());
-        object.put("multipageAnimationFrontImageScaleType", customization.getMultipageAnimationFrontImageScaleType());
-        object.put("multipageAnimationBackImageScaleType", customization.getMultipageAnimationBackImageScaleType());
-        object.put("helpAnimationImageMatrix", customization.getHelpAnimationImageMatrix());
-        object.put("multipageAnimationFrontImageMatrix", customization.getMultipageAnimationFrontImageMatrix());
-        object.put("multipageAnimationBackImageMatrix", customization.getMultipageAnimationBackImageMatrix());
-        object.put("statusTextFont", customization.getStatusTextFont());
-        object.put("resultStatusTextFont", customization.getResultStatusTextFont());
-        object.put("statusPositionMultiplier", customization.getStatusPositionMultiplier());
-        object.put("resultStatusPositionMultiplier", customization.getResultStatusPositionMultiplier());
-        object.put("backgroundMaskAlpha", customization.getBackgroundMaskAlpha());
-        object.put("helpAnimationImage", bitmapToBase64String(bitmapFromDrawable(customization.getHelpAnimationImageDrawable())));
-        object.put("cameraFrameOffsetWidth", customization.getCameraFrameOffsetWidth());
-        object.put("customLabelStatus", customization.getCustomLabelStatus().toString());
-        object.put("customStatusPositionMultiplier", customization.getCustomStatusPositionMultiplier());
-        object.put("cameraFrameVerticalPositionMultiplier", customization.getCameraFrameVerticalPositionMultiplier());
-        object.put("cameraFrameLandscapeAspectRatio", customization.getCameraFrameLandscapeAspectRatio());
-        object.put("cameraFramePortraitAspectRatio", customization.getCameraFramePortraitAspectRatio());
-        object.put("cameraFrameCornerRadius", customization.getCameraFrameCornerRadius());
-        object.put("cameraFrameLineCap", customization.getCameraFrameLineCap().toString());
-        object.put("closeButtonImage", bitmapToBase64String(bitmapFromDrawable(customization.getCloseButtonDrawable())));
-        object.put("captureButtonImage", bitmapToBase64String(bitmapFromDrawable(customization.getCaptureButtonDrawable())));
-        object.put("changeFrameCollapseButtonImage", bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameCollapseButtonDrawable())));
-        object.put("changeFrameExpandButtonImage", bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameExpandButtonDrawable())));
-        object.put("cameraSwitchButtonImage", bitmapToBase64String(bitmapFromDrawable(customization.getCameraSwitchButtonDrawable())));
-        object.put("torchButtonOnImage", bitmapToBase64String(bitmapFromDrawable(customization.getTorchImageOnDrawable())));
-        object.put("torchButtonOffImage", bitmapToBase64String(bitmapFromDrawable(customization.getTorchImageOffDrawable())));
-        object.put("changeFrameButtonExpandImage", bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameExpandButtonDrawable())));
-        object.put("changeFrameButtonCollapseImage", bitmapToBase64String(bitmapFromDrawable(customization.getChangeFrameCollapseButtonDrawable())));
-        object.put("toolbarSize", customization.getToolbarSize());
-        object.put("statusBackgroundColor", customization.getStatusBackgroundColor());
-        object.put("hologramAnimationImage", bitmapToBase64String(bitmapFromDrawable(customization.getHologramAnimationImage())));
-        object.put("hologramAnimationPositionMultiplier", customization.getHologramAnimationPositionMultiplier());
-        object.put("hologramAnimationImageMatrix", customization.getHologramAnimationImageMatrix());
-        object.put("hologramAnimationImageScaleType", customization.getHologramAnimationImageScaleType());
-        object.put("uiCustomizationLayer", customization.getUiCustomizationLayer());
-
-        return object;
+        return getSection(customizationGetters, customization);
     }
 
     private static JSONObject getProcessParams(ProcessParam processParams) throws JSONException {
-        JSONObject object = new JSONObject();
-        object.put("documentIDList", processParams.documentIDList != null ? generateIntArray(processParams.documentIDList) : null);
-        object.put("barcodeTypes", processParams.doBarcodes != null ? generateArray(processParams.doBarcodes) : null);
-        object.put("fieldTypesFilter", processParams.fieldTypesFilter != null ? generateIntArray(processParams.fieldTypesFilter) : null);
-        object.put("faceMetaData", processParams.faceMetaData != null ? generateArray(processParams.faceMetaData, JSONConstructor::generateFaceMetaData) : null);
-        object.put("scenario", processParams.scenario);
-        object.put("measureSystem", processParams.measureSystem);
-        object.put("uvTorchEnabled", processParams.uvTorchEnabled);
-        object.put("debugSaveImages", true);
-        object.put("debugSaveLogs", processParams.debugSaveLogs);
-        object.put("multipageProcessing", processParams.multipageProcessing);
-        object.put("dateFormat", processParams.dateFormat);
-        object.put("debugSaveCroppedImages", processParams.debugSaveCroppedImages);
-        object.put("sessionLogFolder", processParams.sessionLogFolder);
-        object.put("disableFocusingCheck", processParams.disableFocusingCheck);
-        object.put("captureButtonScenario", processParams.captureButtonScenario);
-        object.put("returnUncroppedImage", processParams.returnUncroppedImage);
-        object.put("customParams", processParams.customParams != null ? processParams.customParams.toString() : new JSONArray());
-        object.put("debugSaveRFIDSession", processParams.debugSaveRFIDSession);
-        object.put("barcodeParserType", processParams.barcodeParserType);
-        object.put("doublePageSpread", processParams.doublePageSpread);
-        object.put("timeout", processParams.timeout);
-        object.put("timeoutFromFirstDetect", processParams.timeoutFromFirstDetect);
-        object.put("timeoutFromFirstDocType", processParams.timeoutFromFirstDocType);
-        object.put("manualCrop", processParams.manualCrop);
-        object.put("perspectiveAngle", processParams.perspectiveAngle);
-        object.put("integralImage", processParams.integralImage);
-        object.put("minDPI", processParams.minDPI);
-        object.put("logs", processParams.isLogEnable());
-        object.put("returnCroppedBarcode", processParams.returnCroppedBarcode);
-        object.put("checkHologram", processParams.checkHologram);
-        object.put("checkRequiredTextFields", processParams.checkRequiredTextFields);
-        object.put("depersonalizeLog", processParams.depersonalizeLog);
-        object.put("resultTypeOutput", processParams.resultTypeOutput);
-        object.put("generateDoublePageSpreadImage", processParams.generateDoublePageSpreadImage);
-        object.put("imageDpiOutMax", processParams.imageDpiOutMax);
-        object.put("alreadyCropped", processParams.alreadyCropped);
-        object.put("forceDocID", processParams.forceDocID);
-        object.put("matchTextFieldMask", processParams.matchTextFieldMask);
-        object.put("fastDocDetect", processParams.fastDocDetect);
-        object.put("updateOCRValidityByGlare", processParams.updateOCRValidityByGlare);
-        object.put("imageQA", processParams.imageQA != null ? processParams.imageQA.toJsonObject() : null);
-        object.put("forceDocFormat", processParams.forceDocFormat);
-        object.put("noGraphics", processParams.noGraphics);
-        object.put("documentAreaMin", processParams.documentAreaMin);
-        object.put("multiDocOnImage", processParams.multiDocOnImage);
-        object.put("shiftExpiryDate", processParams.shiftExpiryDate);
-        object.put("minimalHolderAge", processParams.minimalHolderAge);
-        object.put("mrzFormatsFilter", processParams.mrzFormatsFilter != null ? generateArray(processParams.mrzFormatsFilter) : null);
-        object.put("forceReadMrzBeforeLocate", processParams.forceReadMrzBeforeLocate);
-        object.put("parseBarcodes", processParams.parseBarcodes);
-        object.put("shouldReturnPackageForReprocess", processParams.shouldReturnPackageForReprocess);
-
-        return object;
+        return getSection(processParamsGetters, processParams);
     }
 
-    static void setRfidScenario(JSONObject opts) throws JSONException {
+    static void setRfidScenario(ConfigMap opts) throws JSONException {
         if (opts.has("paceStaticBinding"))
             DocumentReader.Instance().rfidScenario().setPaceStaticBinding(opts.getBoolean("PACE_StaticBinding"));
         if (opts.has("signManagementAction"))
@@ -598,14 +977,14 @@ class RegulaConfig {
         if (opts.has("autoSettings"))
             DocumentReader.Instance().rfidScenario().setAutoSettings(opts.getBoolean("autoSettings"));
         if (opts.has("ePassportDataGroups"))
-            setDataGroups(DocumentReader.Instance().rfidScenario().ePassportDataGroups(), opts.getJSONObject("ePassportDataGroups"));
+            setDataGroups(DocumentReader.Instance().rfidScenario().ePassportDataGroups(), opts.getMap("ePassportDataGroups"));
         if (opts.has("eIDDataGroups"))
-            setDataGroups(DocumentReader.Instance().rfidScenario().eIDDataGroups(), opts.getJSONObject("eIDDataGroups"));
+            setDataGroups(DocumentReader.Instance().rfidScenario().eIDDataGroups(), opts.getMap("eIDDataGroups"));
         if (opts.has("eDLDataGroups"))
-            setDataGroups(DocumentReader.Instance().rfidScenario().eDLDataGroups(), opts.getJSONObject("eDLDataGroups"));
+            setDataGroups(DocumentReader.Instance().rfidScenario().eDLDataGroups(), opts.getMap("eDLDataGroups"));
     }
 
-    private static void setDataGroups(DataGroups dataGroup, JSONObject opts) throws JSONException {
+    private static void setDataGroups(DataGroups dataGroup, ConfigMap opts) throws JSONException {
         if (opts.has("DG1"))
             dataGroup.setDG1(opts.getBoolean("DG1"));
         if (opts.has("DG2"))
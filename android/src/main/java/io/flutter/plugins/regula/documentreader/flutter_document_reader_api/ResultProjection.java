@@ -0,0 +1,37 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Top-level keys of DocumentReaderResults that should be serialized, checked before each subtree is built.
+class ResultProjection {
+    static final ResultProjection ALL = new ResultProjection(null, null);
+
+    private final Set<String> include;
+    private final Set<String> exclude;
+
+    ResultProjection(Set<String> include, Set<String> exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    static ResultProjection fromJSON(JSONObject input) {
+        if (input == null) return ALL;
+        return new ResultProjection(keySet(input.optJSONArray("include")), keySet(input.optJSONArray("exclude")));
+    }
+
+    boolean has(String key) {
+        return (include == null || include.contains(key)) && (exclude == null || !exclude.contains(key));
+    }
+
+    private static Set<String> keySet(JSONArray keys) {
+        if (keys == null) return null;
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < keys.length(); i++)
+            result.add(keys.optString(i));
+        return result;
+    }
+}
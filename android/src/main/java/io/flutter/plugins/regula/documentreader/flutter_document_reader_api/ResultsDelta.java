@@ -0,0 +1,126 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import com.regula.documentreader.api.results.DocumentReaderGraphicField;
+import com.regula.documentreader.api.results.DocumentReaderGraphicResult;
+import com.regula.documentreader.api.results.DocumentReaderTextField;
+import com.regula.documentreader.api.results.DocumentReaderTextResult;
+import com.regula.documentreader.api.results.DocumentReaderValue;
+import com.regula.documentreader.api.results.rfid.Application;
+import com.regula.documentreader.api.results.rfid.File;
+import com.regula.documentreader.api.results.rfid.RFIDSessionData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Remembers what was already sent during a scanning session and strips it from the next results,
+// so multipage and rfid completions only carry new or changed text fields, images and data groups.
+class ResultsDelta {
+    private final Map<String, String> textFields = new HashMap<>();
+    private final Map<String, String> graphicFields = new HashMap<>();
+    private final Map<String, String> rfidFiles = new HashMap<>();
+
+    synchronized void reset() {
+        textFields.clear();
+        graphicFields.clear();
+        rfidFiles.clear();
+    }
+
+    synchronized DocumentReaderTextResult textResult(DocumentReaderTextResult input) {
+        if (input == null) return null;
+        DocumentReaderTextResult result = new DocumentReaderTextResult();
+        result.status = input.status;
+        result.fields = new ArrayList<>();
+        if (input.fields != null)
+            for (DocumentReaderTextField field : input.fields)
+                if (field != null && changed(textFields, field.fieldType + "_" + field.lcid, signature(field)))
+                    result.fields.add(field);
+        return result;
+    }
+
+    // Fields that share type, source, light and page, such as several rfid portraits, are told apart by their order.
+    synchronized DocumentReaderGraphicResult graphicResult(DocumentReaderGraphicResult input) {
+        if (input == null) return null;
+        DocumentReaderGraphicResult result = new DocumentReaderGraphicResult();
+        result.fields = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        if (input.fields != null)
+            for (DocumentReaderGraphicField field : input.fields) {
+                if (field == null) continue;
+                String key = field.fieldType + "_" + field.sourceType + "_" + field.light + "_" + field.pageIndex;
+                Integer occurrence = occurrences.get(key);
+                occurrences.put(key, occurrence == null ? 1 : occurrence + 1);
+                if (occurrence != null)
+                    key += "#" + occurrence;
+                if (changed(graphicFields, key, signature(field)))
+                    result.fields.add(field);
+            }
+        return result;
+    }
+
+    synchronized RFIDSessionData rfidSessionData(RFIDSessionData input) {
+        if (input == null) return null;
+        RFIDSessionData result = new RFIDSessionData();
+        result.totalBytesReceived = input.totalBytesReceived;
+        result.totalBytesSent = input.totalBytesSent;
+        result.status = input.status;
+        result.extLeSupport = input.extLeSupport;
+        result.processTime = input.processTime;
+        result.cardProperties = input.cardProperties;
+        result.sessionDataStatus = input.sessionDataStatus;
+        result.accessControls = input.accessControls;
+        result.securityObjects = input.securityObjects;
+        result.applications = new ArrayList<>();
+        if (input.applications != null)
+            for (Application application : input.applications)
+                if (application != null)
+                    result.applications.add(application(application));
+        return result;
+    }
+
+    private Application application(Application input) {
+        Application result = new Application();
+        result.type = input.type;
+        result.status = input.status;
+        result.applicationID = input.applicationID;
+        result.dataHashAlgorithm = input.dataHashAlgorithm;
+        result.unicodeVersion = input.unicodeVersion;
+        result.version = input.version;
+        List<File> files = new ArrayList<>();
+        if (input.files != null)
+            for (File file : input.files)
+                if (file != null && changed(rfidFiles, input.type + "_" + file.type, file.readingStatus + "_" + file.pAStatus))
+                    files.add(file);
+        result.files = files;
+        return result;
+    }
+
+    private static boolean changed(Map<String, String> sent, String key, String signature) {
+        if (signature.equals(sent.get(key))) return false;
+        sent.put(key, signature);
+        return true;
+    }
+
+    private static String signature(DocumentReaderTextField field) {
+        StringBuilder builder = new StringBuilder().append(field.status);
+        if (field.values != null)
+            for (DocumentReaderValue value : field.values)
+                if (value != null)
+                    builder.append('|').append(value.sourceType).append(',').append(value.pageIndex).append(',')
+                            .append(value.validity).append(',').append(value.value).append(',').append(value.originalValue);
+        return builder.toString();
+    }
+
+    // The image content decides, a rescanned page can keep its rect while the image changes and rfid images have no rect.
+    private static String signature(DocumentReaderGraphicField field) {
+        StringBuilder builder = new StringBuilder().append(field.fieldType).append(',').append(field.sourceType).append(',').append(field.pageIndex);
+        if (field.boundRect != null)
+            builder.append('|').append(field.boundRect.left).append(',').append(field.boundRect.top).append(',')
+                    .append(field.boundRect.right).append(',').append(field.boundRect.bottom);
+        String image = field.imageBase64();
+        if (image != null)
+            builder.append('|').append(image.length()).append(',').append(image.hashCode());
+        return builder.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import com.regula.documentreader.api.results.DocumentReaderGraphicResult;
+import com.regula.documentreader.api.results.DocumentReaderResults;
+import com.regula.documentreader.api.results.DocumentReaderTextResult;
+import com.regula.documentreader.api.results.rfid.RFIDSessionData;
+
+// Per-completion serialization settings shared by JSONConstructor and BinaryResultsEncoder.
+// The delta is applied once here, so a serializer falling back to another one sees the same results.
+class ResultsParams {
+    // Embeds base64 images, for results getGraphicFieldImage can't read later: stored batch job results and parseCoreResults.
+    static final ResultsParams DEFAULT = new ResultsParams(null, ResultProjection.ALL, null, null, null);
+
+    final GraphicImages images;
+    final ResultProjection projection;
+    final boolean delta;
+    final String requestId;
+    private DocumentReaderTextResult textResult;
+    private DocumentReaderGraphicResult graphicResult;
+    private RFIDSessionData rfidSessionData;
+
+    ResultsParams(GraphicImages images, ResultProjection projection, ResultsDelta delta, DocumentReaderResults results, String requestId) {
+        this.images = images;
+        this.projection = projection;
+        this.requestId = requestId;
+        this.delta = delta != null && results != null;
+        if (this.delta) {
+            textResult = delta.textResult(results.textResult);
+            graphicResult = delta.graphicResult(results.graphicResult);
+            rfidSessionData = delta.rfidSessionData(results.rfidSessionData);
+        }
+    }
+
+    DocumentReaderTextResult textResult(DocumentReaderResults input) {
+        return delta ? textResult : input.textResult;
+    }
+
+    DocumentReaderGraphicResult graphicResult(DocumentReaderResults input) {
+        return delta ? graphicResult : input.graphicResult;
+    }
+
+    RFIDSessionData rfidSessionData(DocumentReaderResults input) {
+        return delta ? rfidSessionData : input.rfidSessionData;
+    }
+}
@@ -0,0 +1,162 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// Jobs run on a direct executor, so every step happens inside the call that triggers it.
+public class BatchJobQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> ran = new ArrayList<>();
+    private final List<JSONObject> events = new ArrayList<>();
+    private BatchJobQueue.JobCompletion pending;
+    private boolean holdJobs = false;
+    private BatchJobQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new BatchJobQueue(folder.getRoot(), Runnable::run, (id, job, completion) -> {
+            ran.add(job.getString("name"));
+            if (job.optBoolean("fail"))
+                completion.fail(new IllegalStateException("failed " + id));
+            else if (job.optBoolean("throw"))
+                throw new IllegalArgumentException("thrown " + id);
+            else if (holdJobs)
+                pending = completion;
+            else
+                completion.finish(new JSONObject().put("action", 1));
+        }, events::add);
+    }
+
+    @Test
+    public void runsJobsInEnqueueOrder() throws Exception {
+        String first = queue.enqueue(job("a"));
+        String second = queue.enqueue(job("b"));
+        String third = queue.enqueue(job("c"));
+
+        queue.start();
+
+        assertEquals(Arrays.asList("a", "b", "c"), ran);
+        assertEquals(3, events.size());
+        assertEquals(first, events.get(0).getString("jobId"));
+        assertEquals(second, events.get(1).getString("jobId"));
+        assertEquals(third, events.get(2).getString("jobId"));
+        assertEquals(3, events.get(2).getInt("finishedJobs"));
+        assertEquals(0, events.get(2).getInt("pendingJobs"));
+        JSONObject list = queue.list();
+        assertFalse(list.getBoolean("running"));
+        assertEquals(0, list.getJSONArray("pending").length());
+        assertEquals(3, list.getJSONArray("finished").length());
+    }
+
+    @Test
+    public void storesResults() throws Exception {
+        String id = queue.enqueue(job("a"));
+
+        queue.start();
+
+        JSONObject result = new JSONObject(queue.result(id));
+        assertEquals(id, result.getString("jobId"));
+        assertEquals(1, result.getJSONObject("completion").getInt("action"));
+        assertFalse(result.has("error"));
+        assertTrue(events.get(0).getBoolean("success"));
+        assertNull(queue.result("missing"));
+    }
+
+    @Test
+    public void recordsFailuresAndMovesOn() throws Exception {
+        String failed = queue.enqueue(job("a").put("fail", true));
+        String thrown = queue.enqueue(job("b").put("throw", true));
+        queue.enqueue(job("c"));
+
+        queue.start();
+
+        assertEquals(Arrays.asList("a", "b", "c"), ran);
+        assertFalse(events.get(0).getBoolean("success"));
+        assertFalse(events.get(1).getBoolean("success"));
+        assertTrue(events.get(2).getBoolean("success"));
+        assertTrue(new JSONObject(queue.result(failed)).getString("error").contains("failed " + failed));
+        assertTrue(new JSONObject(queue.result(thrown)).getString("error").contains("thrown " + thrown));
+    }
+
+    @Test
+    public void stopLetsTheCurrentJobFinish() throws Exception {
+        holdJobs = true;
+        String first = queue.enqueue(job("a"));
+        String second = queue.enqueue(job("b"));
+        queue.start();
+
+        queue.stop();
+        assertEquals(first, queue.list().getString("current"));
+        pending.finish(new JSONObject());
+
+        assertEquals(Arrays.asList("a"), ran);
+        JSONObject list = queue.list();
+        assertFalse(list.getBoolean("running"));
+        assertEquals(second, list.getJSONArray("pending").getString(0));
+
+        holdJobs = false;
+        queue.start();
+        assertEquals(Arrays.asList("a", "b"), ran);
+    }
+
+    @Test
+    public void restartWhileAJobRunsDoesNotRunItTwice() throws Exception {
+        holdJobs = true;
+        queue.enqueue(job("a"));
+        queue.enqueue(job("b"));
+        queue.start();
+        queue.stop();
+        queue.start();
+
+        holdJobs = false;
+        pending.finish(new JSONObject());
+
+        assertEquals(Arrays.asList("a", "b"), ran);
+    }
+
+    @Test
+    public void removesEverythingButTheCurrentJob() throws Exception {
+        holdJobs = true;
+        String current = queue.enqueue(job("a"));
+        String queued = queue.enqueue(job("b"));
+        queue.start();
+
+        assertFalse(queue.remove(current));
+        assertTrue(queue.remove(queued));
+        assertFalse(queue.remove(queued));
+
+        pending.finish(new JSONObject());
+        assertEquals(Arrays.asList("a"), ran);
+        assertTrue(queue.remove(current));
+        assertNull(queue.result(current));
+    }
+
+    @Test
+    public void jobsSurviveANewQueue() throws Exception {
+        String id = queue.enqueue(job("a"));
+
+        setUp();
+        queue.start();
+
+        assertEquals(Arrays.asList("a"), ran);
+        assertEquals(id, events.get(0).getString("jobId"));
+    }
+
+    private static JSONObject job(String name) throws Exception {
+        return new JSONObject().put("name", name);
+    }
+}
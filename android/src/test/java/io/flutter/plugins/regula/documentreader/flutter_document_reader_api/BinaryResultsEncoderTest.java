@@ -0,0 +1,128 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+
+// test/fixtures/binary_completion.hex is decoded by test/document_reader_test.dart, so a change
+// in the layout fails on both sides until the fixture and BinaryResultsDecoder are updated.
+public class BinaryResultsEncoderTest {
+    private static final File FIXTURE = new File("../test/fixtures/binary_completion.hex");
+
+    @Test
+    public void matchesGoldenFixture() throws Exception {
+        // a small initial capacity makes the buffer grow while containers are open
+        BinaryResultsEncoder encoder = new BinaryResultsEncoder(8);
+        encoder.beginMap();
+        encoder.key("action").value(1);
+        encoder.key("requestId").value("7");
+        encoder.key("results");
+        encoder.beginMap();
+        encoder.key("chipPage").value(1);
+        encoder.key("elapsedTime").value(1L << 40);
+        encoder.key("morePagesAvailable").value(false);
+        encoder.key("rawResult").value((String) null);
+        encoder.key("textResult");
+        encoder.beginMap();
+        encoder.key("status").value(1);
+        encoder.key("fields");
+        encoder.beginList();
+        encoder.beginMap();
+        encoder.key("fieldType").value(25);
+        encoder.key("value");
+        encoder.beginMap();
+        encoder.key("value").value("M\u00fcller \u2713");
+        encoder.endMap();
+        encoder.key("values");
+        encoder.beginList();
+        encoder.nullValue();
+        encoder.beginMap();
+        encoder.key("value").value("x");
+        encoder.endMap();
+        encoder.endList();
+        encoder.endMap();
+        encoder.endList();
+        encoder.endMap();
+        encoder.key("graphicResult");
+        encoder.beginMap();
+        encoder.key("fields");
+        encoder.beginList();
+        encoder.beginMap();
+        encoder.key("fieldType").value(201);
+        encoder.key("imageBytes").value(new byte[]{0, 1, 2, (byte) 250, (byte) 255});
+        encoder.endMap();
+        encoder.endList();
+        encoder.endMap();
+        encoder.key("documentPosition");
+        encoder.beginList();
+        encoder.beginMap();
+        encoder.key("angle").value(0.25);
+        encoder.key("center");
+        encoder.beginMap();
+        encoder.endMap();
+        encoder.endMap();
+        encoder.endList();
+        encoder.endMap();
+        encoder.key("delta").value(true);
+        encoder.endMap();
+
+        assertArrayEquals(readFixture(), encoder.toByteArray());
+    }
+
+    @Test
+    public void jsonValueMatchesTypedWriters() throws Exception {
+        BinaryResultsEncoder typed = new BinaryResultsEncoder();
+        typed.beginList();
+        typed.value(3);
+        typed.value(1L << 40);
+        typed.value(0.5);
+        typed.value("s");
+        typed.nullValue();
+        typed.value(true);
+        typed.beginMap();
+        typed.key("list");
+        typed.beginList();
+        typed.endList();
+        typed.endMap();
+        typed.endList();
+
+        BinaryResultsEncoder json = new BinaryResultsEncoder();
+        json.jsonValue(new JSONArray()
+                .put(3)
+                .put(1L << 40)
+                .put(0.5)
+                .put("s")
+                .put(JSONObject.NULL)
+                .put(true)
+                .put(new JSONObject().put("list", new JSONArray())));
+
+        assertArrayEquals(typed.toByteArray(), json.toByteArray());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsUnclosedContainers() {
+        BinaryResultsEncoder encoder = new BinaryResultsEncoder();
+        encoder.beginList();
+        encoder.toByteArray();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsKeysOutsideOfMaps() {
+        new BinaryResultsEncoder().key("key");
+    }
+
+    private static byte[] readFixture() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        String hex = new String(Files.readAllBytes(FIXTURE.toPath()), StandardCharsets.US_ASCII);
+        for (String item : hex.trim().split("\\s+"))
+            bytes.write(Integer.parseInt(item, 16));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigMapTest {
+    private static final String[] FONT = {"statusTextFont", "statusTextFontStyle", "statusTextSize"};
+
+    @Test
+    public void keepsOnlyChangedKeys() {
+        Map<String, Object> applied = map("timeout", 10, "showHelp", true, "scenario", "Mrz");
+        ConfigMap opts = new ConfigMap(map("timeout", 10, "showHelp", false, "torch", true));
+
+        ConfigMap changed = opts.changedSince(applied);
+
+        assertEquals(map("showHelp", false, "torch", true), changed.asMap());
+    }
+
+    @Test
+    public void nothingChanged() {
+        Map<String, Object> applied = map("timeout", 10, "scenario", "Mrz");
+
+        assertTrue(new ConfigMap(map("timeout", 10)).changedSince(applied).isEmpty());
+    }
+
+    @Test
+    public void comparesNestedValuesByContent() throws Exception {
+        JSONObject json = new JSONObject()
+                .put("documentIDList", new JSONArray().put(1).put(2))
+                .put("rfidParams", new JSONObject().put("paIgnoreNotificationCodes", new JSONArray().put(3)));
+        Map<String, Object> applied = map(
+                "documentIDList", Arrays.asList(1, 2),
+                "rfidParams", map("paIgnoreNotificationCodes", Collections.singletonList(3)));
+
+        assertTrue(ConfigMap.fromJSON(json).changedSince(applied).isEmpty());
+
+        json.put("documentIDList", new JSONArray().put(1));
+        ConfigMap changed = ConfigMap.fromJSON(json).changedSince(applied);
+
+        assertEquals(Collections.singleton("documentIDList"), changed.asMap().keySet());
+    }
+
+    @Test
+    public void bringsTheRestOfAChangedGroup() {
+        Map<String, Object> applied = map("statusTextFont", "Roboto", "statusTextFontStyle", 1, "statusTextSize", 14, "timeout", 10);
+        ConfigMap opts = new ConfigMap(map("statusTextFont", "Roboto", "statusTextFontStyle", 2, "timeout", 10));
+
+        ConfigMap changed = opts.changedSince(applied, FONT);
+
+        // the font comes from opts, the size only from applied
+        assertEquals(map("statusTextFont", "Roboto", "statusTextFontStyle", 2, "statusTextSize", 14), changed.asMap());
+    }
+
+    @Test
+    public void leavesUnchangedGroupsOut() {
+        Map<String, Object> applied = map("statusTextFont", "Roboto", "statusTextFontStyle", 1, "timeout", 10);
+        ConfigMap opts = new ConfigMap(map("statusTextFont", "Roboto", "statusTextFontStyle", 1, "timeout", 20));
+
+        ConfigMap changed = opts.changedSince(applied, FONT);
+
+        assertEquals(map("timeout", 20), changed.asMap());
+        assertFalse(changed.has("statusTextSize"));
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> result = new HashMap<>();
+        for (int i = 0; i < entries.length; i += 2)
+            result.put((String) entries[i], entries[i + 1]);
+        return result;
+    }
+}
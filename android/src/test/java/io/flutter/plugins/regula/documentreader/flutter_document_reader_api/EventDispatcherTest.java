@@ -0,0 +1,119 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.flutter.plugin.common.EventChannel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// The main thread is a list of posted runnables, run when the test drains it.
+public class EventDispatcherTest {
+    private final List<Runnable> mainThread = new ArrayList<>();
+    private final EventDispatcher.Channel channel = new EventDispatcher.Channel(mainThread::add);
+    private final RecordingSink sink = new RecordingSink();
+
+    @Test
+    public void drainsABurstInOnePost() {
+        channel.send(sink, 1);
+        channel.send(sink, 2);
+        channel.send(sink, 3);
+
+        assertEquals(1, mainThread.size());
+        drain();
+        assertEquals(Arrays.<Object>asList(1, 2, 3), sink.events);
+
+        channel.send(sink, 4);
+        assertEquals(1, mainThread.size());
+        drain();
+        assertEquals(Arrays.<Object>asList(1, 2, 3, 4), sink.events);
+    }
+
+    @Test
+    public void replacesKeyedEventsInPlace() {
+        channel.send(sink, "progress", "10%");
+        channel.send(sink, null, "chip detected");
+        channel.send(sink, "progress", "50%");
+        channel.send(sink, "progress", "90%");
+
+        drain();
+
+        assertEquals(Arrays.<Object>asList("90%", "chip detected"), sink.events);
+    }
+
+    @Test
+    public void neverDropsUnkeyedEvents() {
+        for (int i = 0; i < 1000; i++)
+            channel.send(sink, i);
+        channel.send(sink, "key", "keyed");
+
+        drain();
+
+        assertEquals(1001, sink.events.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i, sink.events.get(i));
+        assertEquals("keyed", sink.events.get(1000));
+    }
+
+    @Test
+    public void keepsDistinctKeys() {
+        channel.send(sink, "1:0", "first");
+        channel.send(sink, "2:0", "second");
+        channel.send(sink, "1:5", "third");
+
+        drain();
+
+        assertEquals(Arrays.<Object>asList("first", "second", "third"), sink.events);
+    }
+
+    @Test
+    public void keyedEventsAfterADrainAreQueuedAgain() {
+        channel.send(sink, "progress", "10%");
+        drain();
+        channel.send(sink, "progress", "20%");
+        drain();
+
+        assertEquals(Arrays.<Object>asList("10%", "20%"), sink.events);
+    }
+
+    @Test
+    public void deliversToTheSinkOfEachEvent() {
+        RecordingSink other = new RecordingSink();
+        channel.send(sink, "a");
+        channel.send(other, "b");
+
+        drain();
+
+        assertEquals(Arrays.<Object>asList("a"), sink.events);
+        assertEquals(Arrays.<Object>asList("b"), other.events);
+    }
+
+    private void drain() {
+        assertTrue(mainThread.size() <= 1);
+        List<Runnable> posted = new ArrayList<>(mainThread);
+        mainThread.clear();
+        for (Runnable runnable : posted)
+            runnable.run();
+    }
+
+    private static class RecordingSink implements EventChannel.EventSink {
+        final List<Object> events = new ArrayList<>();
+
+        @Override
+        public void success(Object event) {
+            events.add(event);
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void endOfStream() {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MethodRegistryTest {
+    private final List<String> handled = new ArrayList<>();
+    private final MethodRegistry<String> registry = new MethodRegistry<>();
+
+    @Before
+    public void setUp() {
+        registry.register("noArgs", handled::add);
+        registry.register("typed", handled::add, MethodRegistry.ArgType.INT, MethodRegistry.ArgType.STRING, MethodRegistry.ArgType.OPT_MAP);
+        registry.register("image", handled::add, MethodRegistry.ArgType.IMAGE);
+    }
+
+    @Test
+    public void looksUpHandlers() throws Exception {
+        assertTrue(registry.has("typed"));
+        assertFalse(registry.has("missing"));
+
+        registry.handler("typed").handle("callback");
+
+        assertEquals(Collections.singletonList("callback"), handled);
+    }
+
+    @Test
+    public void acceptsMatchingArguments() {
+        assertNull(registry.validate("noArgs", Collections.emptyList()));
+        assertNull(registry.validate("typed", Arrays.<Object>asList(1, "s", new HashMap<>())));
+        assertNull(registry.validate("typed", Arrays.<Object>asList(1, "s", null)));
+        assertNull(registry.validate("typed", Arrays.<Object>asList(1, "s")));
+        assertNull(registry.validate("image", Collections.<Object>singletonList("base64")));
+        assertNull(registry.validate("image", Collections.<Object>singletonList(new byte[]{1})));
+    }
+
+    @Test
+    public void describesTheFirstMismatch() {
+        assertEquals("argument 1 is missing, expected String",
+                registry.validate("typed", Collections.<Object>singletonList(1)));
+        assertEquals("argument 0 should be int, got String",
+                registry.validate("typed", Arrays.<Object>asList("1", 2)));
+        assertEquals("argument 2 should be Map, got ArrayList",
+                registry.validate("typed", Arrays.<Object>asList(1, "s", new ArrayList<>())));
+        assertEquals("argument 0 should be String or Uint8List, got Integer",
+                registry.validate("image", Collections.<Object>singletonList(1)));
+    }
+
+    @Test
+    public void recordsTimings() throws Exception {
+        registry.recordCall("typed", 2_000_000);
+        registry.recordCall("typed", 4_000_000);
+        registry.recordReply("typed", 10_000_000);
+
+        JSONObject timings = registry.timings();
+
+        assertFalse(timings.has("noArgs"));
+        JSONObject typed = timings.getJSONObject("typed");
+        assertEquals(2, typed.getLong("calls"));
+        assertEquals(6.0, typed.getDouble("totalMs"), 1e-9);
+        assertEquals(3.0, typed.getDouble("averageMs"), 1e-9);
+        assertEquals(4.0, typed.getDouble("maxMs"), 1e-9);
+        assertEquals(1, typed.getLong("replies"));
+        assertEquals(10.0, typed.getDouble("averageReplyMs"), 1e-9);
+
+        registry.resetTimings();
+
+        assertEquals(0, registry.timings().length());
+    }
+}
@@ -0,0 +1,129 @@
+package io.flutter.plugins.regula.documentreader.flutter_document_reader_api;
+
+import com.regula.documentreader.api.results.DocumentReaderTextField;
+import com.regula.documentreader.api.results.DocumentReaderTextResult;
+import com.regula.documentreader.api.results.DocumentReaderValue;
+import com.regula.documentreader.api.results.rfid.Application;
+import com.regula.documentreader.api.results.rfid.File;
+import com.regula.documentreader.api.results.rfid.RFIDSessionData;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+// Graphic fields are left out: their signature reads the image through the sdk, which needs a device.
+public class ResultsDeltaTest {
+    private final ResultsDelta delta = new ResultsDelta();
+
+    @Test
+    public void sendsTextFieldsOnce() {
+        DocumentReaderTextField surname = textField(25, "SMITH");
+        DocumentReaderTextField name = textField(26, "JOHN");
+
+        assertEquals(Arrays.asList(surname, name), delta.textResult(textResult(surname, name)).fields);
+        assertEquals(Collections.emptyList(), delta.textResult(textResult(textField(25, "SMITH"), textField(26, "JOHN"))).fields);
+    }
+
+    @Test
+    public void resendsChangedTextFields() {
+        delta.textResult(textResult(textField(25, "SMITH"), textField(26, "JOHN")));
+
+        DocumentReaderTextField changed = textField(25, "SMYTH");
+        DocumentReaderTextField revalidated = textField(26, "JOHN");
+        revalidated.values.get(0).validity = 1;
+        DocumentReaderTextField added = textField(26, "JOHN");
+        added.lcid = 1;
+
+        assertEquals(Arrays.asList(changed, revalidated, added), delta.textResult(textResult(changed, revalidated, added)).fields);
+    }
+
+    @Test
+    public void keepsTheTextStatus() {
+        DocumentReaderTextResult input = textResult(textField(25, "SMITH"));
+        input.status = 2;
+
+        DocumentReaderTextResult result = delta.textResult(input);
+
+        assertEquals(2, result.status);
+        assertNull(delta.textResult(null));
+    }
+
+    @Test
+    public void startsOverAfterReset() {
+        DocumentReaderTextField surname = textField(25, "SMITH");
+        delta.textResult(textResult(surname));
+
+        delta.reset();
+
+        assertEquals(Collections.singletonList(surname), delta.textResult(textResult(surname)).fields);
+    }
+
+    @Test
+    public void sendsRfidFilesWhenTheirStatusChanges() {
+        File dg1 = file(1, 0);
+        File dg2 = file(2, 0);
+        RFIDSessionData first = delta.rfidSessionData(session(application(1, dg1, dg2)));
+
+        assertEquals(Arrays.asList(dg1, dg2), first.applications.get(0).files);
+
+        File dg2Read = file(2, 1);
+        RFIDSessionData second = delta.rfidSessionData(session(application(1, file(1, 0), dg2Read)));
+
+        assertEquals(Collections.singletonList(dg2Read), second.applications.get(0).files);
+    }
+
+    @Test
+    public void keepsTheSessionSummary() {
+        RFIDSessionData input = session(application(1, file(1, 0)));
+        input.totalBytesReceived = 100;
+        input.status = 1;
+
+        RFIDSessionData result = delta.rfidSessionData(input);
+
+        assertEquals(100, result.totalBytesReceived);
+        assertEquals(1, result.status);
+        assertEquals(1, result.applications.get(0).type);
+    }
+
+    private static DocumentReaderTextResult textResult(DocumentReaderTextField... fields) {
+        DocumentReaderTextResult result = new DocumentReaderTextResult();
+        result.fields = new ArrayList<>(Arrays.asList(fields));
+        return result;
+    }
+
+    private static DocumentReaderTextField textField(int fieldType, String text) {
+        DocumentReaderValue value = new DocumentReaderValue();
+        value.sourceType = 3;
+        value.value = text;
+        value.originalValue = text;
+        DocumentReaderTextField result = new DocumentReaderTextField();
+        result.fieldType = fieldType;
+        result.values = new ArrayList<>(Collections.singletonList(value));
+        return result;
+    }
+
+    private static RFIDSessionData session(Application... applications) {
+        RFIDSessionData result = new RFIDSessionData();
+        result.applications = new ArrayList<>(Arrays.asList(applications));
+        return result;
+    }
+
+    private static Application application(int type, File... files) {
+        Application result = new Application();
+        result.type = type;
+        result.files = new ArrayList<>(Arrays.asList(files));
+        return result;
+    }
+
+    private static File file(int type, int readingStatus) {
+        File result = new File();
+        result.type = type;
+        result.readingStatus = readingStatus;
+        return result;
+    }
+}
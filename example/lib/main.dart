@@ -46,10 +46,8 @@ class _MyAppState extends State<MyApp> {
   void initState() {
     super.initState();
     initPlatformState();
-    EventChannel('flutter_document_reader_api/event/completion')
-        .receiveBroadcastStream()
-        .listen((jsonString) => this.handleCompletion(
-            DocumentReaderCompletion.fromJson(json.decode(jsonString))));
+    DocumentReader.completionStream
+        .listen((completion) => this.handleCompletion(completion));
     EventChannel('flutter_document_reader_api/event/database_progress')
         .receiveBroadcastStream()
         .listen(
@@ -191,28 +189,19 @@ class _MyAppState extends State<MyApp> {
     // addCertificates();
   }
 
-  displayResults(DocumentReaderResults results) {
+  displayResults(DocumentReaderResults results) async {
+    var docImage = await results
+        .loadGraphicFieldImageByType(eGraphicFieldType.GF_DOCUMENT_IMAGE);
+    var portrait =
+        await results.loadGraphicFieldImageByType(eGraphicFieldType.GF_PORTRAIT);
     setState(() {
       _status = results.getTextFieldValueByType(
               eVisualFieldType.FT_SURNAME_AND_GIVEN_NAMES) ??
           "";
       _docImage = Image.asset('assets/images/id.png');
       _portrait = Image.asset('assets/images/portrait.png');
-      if (results.getGraphicFieldImageByType(207) != null)
-        _docImage = Image.memory(Uri.parse("data:image/png;base64," +
-                results
-                    .getGraphicFieldImageByType(
-                        eGraphicFieldType.GF_DOCUMENT_IMAGE)
-                    .replaceAll('\n', ''))
-            .data
-            .contentAsBytes());
-      if (results.getGraphicFieldImageByType(201) != null)
-        _portrait = Image.memory(Uri.parse("data:image/png;base64," +
-                results
-                    .getGraphicFieldImageByType(eGraphicFieldType.GF_PORTRAIT)
-                    .replaceAll('\n', ''))
-            .data
-            .contentAsBytes());
+      if (docImage != null) _docImage = Image.memory(docImage);
+      if (portrait != null) _portrait = Image.memory(portrait);
 
       for (var textField in results.textResult.fields) {
         for (var value in textField.values) {
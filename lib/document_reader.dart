@@ -1,4 +1,7 @@
 import 'dart:async';
+import 'dart:collection';
+import 'dart:convert';
+import 'dart:typed_data';
 import 'package:flutter/services.dart';
 
 // Classes
@@ -212,6 +215,8 @@ class DocumentReaderGraphicField {
   String? fieldName;
   String? lightName;
   String? value;
+  Uint8List? imageBytes;
+  String? imagePath;
   DocReaderFieldRect? fieldRect;
 
   static DocumentReaderGraphicField? fromJson(jsonObject) {
@@ -225,6 +230,8 @@ class DocumentReaderGraphicField {
     result.fieldName = jsonObject["fieldName"];
     result.lightName = jsonObject["lightName"];
     result.value = jsonObject["value"];
+    result.imageBytes = jsonObject["imageBytes"];
+    result.imagePath = jsonObject["imagePath"];
     result.fieldRect = DocReaderFieldRect.fromJson(jsonObject["fieldRect"]);
 
     return result;
@@ -240,6 +247,8 @@ class DocumentReaderGraphicField {
     if (fieldName != null) result.addAll({"fieldName": fieldName});
     if (lightName != null) result.addAll({"lightName": lightName});
     if (value != null) result.addAll({"value": value});
+    if (imageBytes != null) result.addAll({"imageBytes": imageBytes});
+    if (imagePath != null) result.addAll({"imagePath": imagePath});
     if (fieldRect != null) result.addAll({"fieldRect": fieldRect});
 
     return result;
@@ -1441,6 +1450,24 @@ class DocumentReaderCompletion {
   int? action;
   DocumentReaderResults? results;
   DocumentReaderException? error;
+  bool? delta;
+  String? requestId;
+
+  /// Accepts both json and [CompletionFormat.BINARY] completion events.
+  static DocumentReaderCompletion? fromEvent(event) {
+    if (event == null) return null;
+    if (event is Uint8List) return fromJson(BinaryResultsDecoder.decode(event));
+    if (event is Map) {
+      var jsonObject = json.decode(event["completion"]);
+      var fields = jsonObject["results"]?["graphicResult"]?["fields"];
+      if (fields != null)
+        for (var field in fields)
+          if (field["imageRef"] != null)
+            field["imageBytes"] = event["images"][field["imageRef"]];
+      return fromJson(jsonObject);
+    }
+    return fromJson(json.decode(event));
+  }
 
   static DocumentReaderCompletion? fromJson(jsonObject) {
     if (jsonObject == null) return null;
@@ -1449,6 +1476,8 @@ class DocumentReaderCompletion {
     result.action = jsonObject["action"];
     result.results = DocumentReaderResults.fromJson(jsonObject["results"]);
     result.error = DocumentReaderException.fromJson(jsonObject["error"]);
+    result.delta = jsonObject["delta"];
+    result.requestId = jsonObject["requestId"];
 
     return result;
   }
@@ -1459,6 +1488,8 @@ class DocumentReaderCompletion {
     if (action != null) result.addAll({"action": action});
     if (results != null) result.addAll({"results": results});
     if (error != null) result.addAll({"error": error});
+    if (delta != null) result.addAll({"delta": delta});
+    if (requestId != null) result.addAll({"requestId": requestId});
 
     return result;
   }
@@ -2004,6 +2035,8 @@ class ImageInputData {
   int? width;
   int? height;
   String? bitmap;
+  /// Encoded image bytes, sent instead of the base64 [bitmap] to skip base64 entirely.
+  Uint8List? bitmapBytes;
   List<dynamic>? imgBytes;
 
   static ImageInputData? fromJson(jsonObject) {
@@ -2015,7 +2048,10 @@ class ImageInputData {
     result.type = jsonObject["type"];
     result.width = jsonObject["width"];
     result.height = jsonObject["height"];
-    result.bitmap = jsonObject["bitmap"];
+    if (jsonObject["bitmap"] is Uint8List)
+      result.bitmapBytes = jsonObject["bitmap"];
+    else
+      result.bitmap = jsonObject["bitmap"];
     result.imgBytes = jsonObject["imgBytes"];
 
     return result;
@@ -2030,6 +2066,7 @@ class ImageInputData {
     if (width != null) result.addAll({"width": width});
     if (height != null) result.addAll({"height": height});
     if (bitmap != null) result.addAll({"bitmap": bitmap});
+    else if (bitmapBytes != null) result.addAll({"bitmap": bitmapBytes});
     if (imgBytes != null) result.addAll({"imgBytes": imgBytes});
 
     return result;
@@ -2076,6 +2113,27 @@ class DocumentReaderResults {
   }
 
   String? getGraphicFieldImageByType(int fieldType, { int source = -1, int pageIndex = -1, int light = -1 }) {
+    return this.findGraphicField(fieldType, source: source, pageIndex: pageIndex, light: light)?.value;
+  }
+
+  Uint8List? getGraphicFieldImageBytesByType(int fieldType, { int source = -1, int pageIndex = -1, int light = -1 }) {
+    var field = this.findGraphicField(fieldType, source: source, pageIndex: pageIndex, light: light);
+    if (field == null) return null;
+    if (field.imageBytes != null) return field.imageBytes;
+    return field.value != null ? base64.decode(field.value!.replaceAll("\n", "")) : null;
+  }
+
+  /// Embedded bytes when the completion carried them, otherwise the image is read from the plugin's last results.
+  /// Needed on android with the default [GraphicImageMode.NONE], where completions have no image data.
+  Future<Uint8List?> loadGraphicFieldImageByType(int fieldType, { int source = -1, int pageIndex = -1, int light = -1 }) async {
+    var field = this.findGraphicField(fieldType, source: source, pageIndex: pageIndex, light: light);
+    if (field == null) return null;
+    var bytes = this.getGraphicFieldImageBytesByType(fieldType, source: source, pageIndex: pageIndex, light: light);
+    if (bytes != null) return bytes;
+    return await DocumentReader.getGraphicFieldImage(fieldType, source: field.sourceType ?? -1, light: field.lightType ?? -1, pageIndex: field.pageIndex ?? -1);
+  }
+
+  DocumentReaderGraphicField? findGraphicField(int fieldType, { int source = -1, int pageIndex = -1, int light = -1 }) {
     if (this.graphicResult == null) return null;
     List<DocumentReaderGraphicField> foundFields = [];
 
@@ -2095,7 +2153,65 @@ class DocumentReaderResults {
         if (foundFields[i].pageIndex != pageIndex)
           foundFields.removeAt(i);
 
-    return foundFields.length > 0 ? foundFields[0].value : null;
+    return foundFields.length > 0 ? foundFields[0] : null;
+  }
+
+  /// Folds a [DocumentReaderCompletion.delta] completion into the results accumulated so far.
+  void merge(DocumentReaderResults delta) {
+    chipPage = delta.chipPage;
+    overallResult = delta.overallResult;
+    processingFinishedStatus = delta.processingFinishedStatus;
+    elapsedTime = delta.elapsedTime;
+    elapsedTimeRFID = delta.elapsedTimeRFID;
+    morePagesAvailable = delta.morePagesAvailable;
+    rfidResult = delta.rfidResult;
+    highResolution = delta.highResolution;
+    documentPosition = delta.documentPosition;
+    barcodePosition = delta.barcodePosition;
+    mrzPosition = delta.mrzPosition;
+    imageQuality = delta.imageQuality;
+    rawResult = delta.rawResult;
+    documentReaderNotification = delta.documentReaderNotification;
+    authenticityResult = delta.authenticityResult;
+    barcodeResult = delta.barcodeResult;
+    documentType = delta.documentType;
+    status = delta.status;
+    vdsncData = delta.vdsncData;
+
+    if (textResult == null || delta.textResult == null)
+      textResult = delta.textResult ?? textResult;
+    else {
+      textResult!.status = delta.textResult!.status;
+      for (var field in delta.textResult!.fields) {
+        if (field == null) continue;
+        textResult!.fields.removeWhere((item) => item?.fieldType == field.fieldType && item?.lcid == field.lcid);
+        textResult!.fields.add(field);
+      }
+    }
+
+    if (graphicResult == null || delta.graphicResult == null)
+      graphicResult = delta.graphicResult ?? graphicResult;
+    else
+      for (var field in delta.graphicResult!.fields) {
+        if (field == null) continue;
+        graphicResult!.fields.removeWhere((item) => item?.fieldType == field.fieldType && item?.sourceType == field.sourceType && item?.lightType == field.lightType && item?.pageIndex == field.pageIndex);
+        graphicResult!.fields.add(field);
+      }
+
+    if (rfidSessionData == null || delta.rfidSessionData == null)
+      rfidSessionData = delta.rfidSessionData ?? rfidSessionData;
+    else {
+      var applications = rfidSessionData!.applications;
+      rfidSessionData = delta.rfidSessionData;
+      for (var application in rfidSessionData!.applications) {
+        if (application == null) continue;
+        var previous = applications.firstWhere((item) => item?.type == application.type, orElse: () => null);
+        if (previous == null) continue;
+        for (var file in previous.files)
+          if (file != null && !application.files.any((item) => item?.type == file.type))
+            application.files.add(file);
+      }
+    }
   }
 
   int? getQualityResult(int imageQualityCheckType, { int securityFeature = -1, int pageIndex = 0 }) {
@@ -2231,6 +2347,218 @@ class DocumentReaderResults {
   }
 }
 
+class ResultProjection {
+  List<String>? include;
+  List<String>? exclude;
+
+  static ResultProjection? fromJson(jsonObject) {
+    if (jsonObject == null) return null;
+    var result = new ResultProjection();
+
+    if (jsonObject["include"] != null)
+      result.include = List<String>.from(jsonObject["include"]);
+    if (jsonObject["exclude"] != null)
+      result.exclude = List<String>.from(jsonObject["exclude"]);
+
+    return result;
+  }
+
+  Map toJson(){
+    Map result = {};
+
+    if (include != null) result.addAll({"include": include});
+    if (exclude != null) result.addAll({"exclude": exclude});
+
+    return result;
+  }
+}
+
+/// Limits for decoding input images on the native side.
+/// Oversized images are subsampled while decoding to fit [maxByteCount] (5000000 by default),
+/// [exactScale] additionally scales them to the budget exactly instead of to the nearest power of two below it.
+/// [bitmapConfig] is one of [BitmapConfig], [reuseBitmaps] decodes into bitmaps of earlier recognitions
+/// of the same size, which is worth it for batches of same-sized scans.
+class ImageDecodingPolicy {
+  int? maxByteCount;
+  bool? exactScale;
+  int? bitmapConfig;
+  bool? mutable;
+  bool? reuseBitmaps;
+
+  static ImageDecodingPolicy? fromJson(jsonObject) {
+    if (jsonObject == null) return null;
+    var result = new ImageDecodingPolicy();
+
+    result.maxByteCount = jsonObject["maxByteCount"];
+    result.exactScale = jsonObject["exactScale"];
+    result.bitmapConfig = jsonObject["bitmapConfig"];
+    result.mutable = jsonObject["mutable"];
+    result.reuseBitmaps = jsonObject["reuseBitmaps"];
+
+    return result;
+  }
+
+  Map toJson(){
+    Map result = {};
+
+    if (maxByteCount != null) result.addAll({"maxByteCount": maxByteCount});
+    if (exactScale != null) result.addAll({"exactScale": exactScale});
+    if (bitmapConfig != null) result.addAll({"bitmapConfig": bitmapConfig});
+    if (mutable != null) result.addAll({"mutable": mutable});
+    if (reuseBitmaps != null) result.addAll({"reuseBitmaps": reuseBitmaps});
+
+    return result;
+  }
+}
+
+/// [images] are base64 strings or [Uint8List]s with encoded image bytes,
+/// [config] takes the functionality and processParams keys of [DocumentReader.setConfig]. It is applied before the job runs
+/// and the previous values are set again once it is done, so the config used for scanning is left as it was.
+/// Jobs only start while no scanner or foreground recognition is running, one that starts during a job fails the job.
+/// [timeout] is in milliseconds, 5 minutes by default, a job still running after it fails so the queue moves on.
+class BatchJob {
+  List<dynamic> images = [];
+  Map? config;
+  ImageDecodingPolicy? decodingPolicy;
+  int? timeout;
+
+  static BatchJob? fromJson(jsonObject) {
+    if (jsonObject == null) return null;
+    var result = new BatchJob();
+
+    if (jsonObject["images"] != null)
+      for (var item in jsonObject["images"])
+        result.images.add(item);
+    result.config = jsonObject["config"];
+    result.decodingPolicy = ImageDecodingPolicy.fromJson(jsonObject["decodingPolicy"]);
+    result.timeout = jsonObject["timeout"];
+
+    return result;
+  }
+
+  Map toJson(){
+    Map result = {};
+
+    result.addAll({"images": images});
+    if (config != null) result.addAll({"config": config});
+    if (decodingPolicy != null) result.addAll({"decodingPolicy": decodingPolicy!.toJson()});
+    if (timeout != null) result.addAll({"timeout": timeout});
+
+    return result;
+  }
+}
+
+/// Sent on the flutter_document_reader_api/event/batch_job_completion channel once a batch job is finished,
+/// the job's results are read with [DocumentReader.getBatchJobResult].
+class BatchJobCompletion {
+  String? jobId;
+  bool? success;
+  int? elapsedTime;
+  int? finishedJobs;
+  int? pendingJobs;
+  double? jobsPerMinute;
+
+  static BatchJobCompletion? fromJson(jsonObject) {
+    if (jsonObject == null) return null;
+    var result = new BatchJobCompletion();
+
+    result.jobId = jsonObject["jobId"];
+    result.success = jsonObject["success"];
+    result.elapsedTime = jsonObject["elapsedTime"];
+    result.finishedJobs = jsonObject["finishedJobs"];
+    result.pendingJobs = jsonObject["pendingJobs"];
+    result.jobsPerMinute = jsonObject["jobsPerMinute"]?.toDouble();
+
+    return result;
+  }
+
+  Map toJson(){
+    Map result = {};
+
+    if (jobId != null) result.addAll({"jobId": jobId});
+    if (success != null) result.addAll({"success": success});
+    if (elapsedTime != null) result.addAll({"elapsedTime": elapsedTime});
+    if (finishedJobs != null) result.addAll({"finishedJobs": finishedJobs});
+    if (pendingJobs != null) result.addAll({"pendingJobs": pendingJobs});
+    if (jobsPerMinute != null) result.addAll({"jobsPerMinute": jobsPerMinute});
+
+    return result;
+  }
+}
+
+class BatchedCall {
+  String? method;
+  List<dynamic>? args;
+
+  BatchedCall(this.method, [this.args]);
+
+  Map toJson(){
+    Map result = {};
+
+    if (method != null) result.addAll({"method": method});
+    if (args != null) result.addAll({"args": args});
+
+    return result;
+  }
+}
+
+class BatchedCallResult {
+  dynamic result;
+  String? error;
+
+  static BatchedCallResult? fromJson(jsonObject) {
+    if (jsonObject == null) return null;
+    var result = new BatchedCallResult();
+
+    result.result = jsonObject["result"];
+    result.error = jsonObject["error"];
+
+    return result;
+  }
+
+  Map toJson(){
+    Map result = {};
+
+    if (this.result != null) result.addAll({"result": this.result});
+    if (error != null) result.addAll({"error": error});
+
+    return result;
+  }
+}
+
+class FrameStreamStats {
+  int? submitted;
+  int? processed;
+  int? dropped;
+  int? inFlight;
+  bool? pending;
+
+  static FrameStreamStats? fromJson(jsonObject) {
+    if (jsonObject == null) return null;
+    var result = new FrameStreamStats();
+
+    result.submitted = jsonObject["submitted"];
+    result.processed = jsonObject["processed"];
+    result.dropped = jsonObject["dropped"];
+    result.inFlight = jsonObject["inFlight"];
+    result.pending = jsonObject["pending"];
+
+    return result;
+  }
+
+  Map toJson(){
+    Map result = {};
+
+    if (submitted != null) result.addAll({"submitted": submitted});
+    if (processed != null) result.addAll({"processed": processed});
+    if (dropped != null) result.addAll({"dropped": dropped});
+    if (inFlight != null) result.addAll({"inFlight": inFlight});
+    if (pending != null) result.addAll({"pending": pending});
+
+    return result;
+  }
+}
+
 // Enum
 
 class BarcodeResult {
@@ -2288,6 +2616,11 @@ class BarcodeType {
   static const int CODE11 = 18;
 }
 
+class BitmapConfig {
+  static const int ARGB_8888 = 0;
+  static const int RGB_565 = 1;
+}
+
 class CameraMode {
   static const int AUTO = 0;
   static const int CAMERA1 = 1;
@@ -2305,6 +2638,11 @@ class CaptureMode {
   static const int CAPTURE_FRAME = 2;
 }
 
+class CompletionFormat {
+  static const int JSON = 0;
+  static const int BINARY = 1;
+}
+
 class diDocType {
   static const int dtNotDefined = 0;
   static const int dtPassport = 11;
@@ -6525,6 +6863,17 @@ class FrameShapeType {
   static const int CORNER = 1;
 }
 
+/// How graphic field images are sent with completions on android, see [DocumentReader.setGraphicImageMode].
+/// The default is [NONE]: completions carry field metadata only and images are read on demand through
+/// [DocumentReader.getGraphicFieldImage] or [DocumentReaderResults.loadGraphicFieldImageByType].
+/// [BASE64] restores the previous behavior of embedding every image in the completion.
+class GraphicImageMode {
+  static const int BASE64 = 0;
+  static const int BYTES = 1;
+  static const int FILE = 2;
+  static const int NONE = 3;
+}
+
 class IRfidNotificationCompletion {
   static const int RFID_EVENT_CHIP_DETECTED = 1;
   static const int RFID_EVENT_READING_ERROR = 2;
@@ -7091,8 +7440,256 @@ class UIViewContentMode {
   static const int BottomRight = 12;
 }
 
+// Binary transport
+
+/// Reads the payload written by BinaryResultsEncoder on android. Map values
+/// are decoded on first access, so untouched subtrees are never decoded.
+class BinaryResultsDecoder {
+  static const int VERSION = 1;
+
+  static const int _NULL = 0;
+  static const int _FALSE = 1;
+  static const int _TRUE = 2;
+  static const int _INT = 3;
+  static const int _LONG = 4;
+  static const int _DOUBLE = 5;
+  static const int _STRING = 6;
+  static const int _BYTES = 7;
+  static const int _LIST = 8;
+  static const int _MAP = 9;
+
+  final ByteData _data;
+
+  BinaryResultsDecoder._(this._data);
+
+  static dynamic decode(Uint8List bytes) {
+    var data = ByteData.view(bytes.buffer, bytes.offsetInBytes, bytes.lengthInBytes);
+    if (data.getUint8(0) != VERSION)
+      throw FormatException("unsupported results format version: " + data.getUint8(0).toString());
+    return BinaryResultsDecoder._(data)._readValue(1);
+  }
+
+  dynamic _readValue(int offset) {
+    switch (_data.getUint8(offset)) {
+      case _NULL:
+        return null;
+      case _FALSE:
+        return false;
+      case _TRUE:
+        return true;
+      case _INT:
+        return _data.getInt32(offset + 1, Endian.little);
+      case _LONG:
+        return _data.getInt64(offset + 1, Endian.little);
+      case _DOUBLE:
+        return _data.getFloat64(offset + 1, Endian.little);
+      case _STRING:
+        return _readString(offset + 1);
+      case _BYTES:
+        var length = _data.getInt32(offset + 1, Endian.little);
+        return _data.buffer.asUint8List(_data.offsetInBytes + offset + 5, length);
+      case _LIST:
+        var count = _data.getInt32(offset + 5, Endian.little);
+        var result = [];
+        var position = offset + 9;
+        for (var i = 0; i < count; i++) {
+          result.add(_readValue(position));
+          position = _skipValue(position);
+        }
+        return result;
+      case _MAP:
+        return _LazyBinaryMap(this, offset);
+    }
+    throw FormatException("unknown value tag at " + offset.toString());
+  }
+
+  String _readString(int offset) {
+    var length = _data.getInt32(offset, Endian.little);
+    return utf8.decode(_data.buffer.asUint8List(_data.offsetInBytes + offset + 4, length));
+  }
+
+  int _skipValue(int offset) {
+    switch (_data.getUint8(offset)) {
+      case _NULL:
+      case _FALSE:
+      case _TRUE:
+        return offset + 1;
+      case _INT:
+        return offset + 5;
+      case _LONG:
+      case _DOUBLE:
+        return offset + 9;
+      case _STRING:
+      case _BYTES:
+        return offset + 5 + _data.getInt32(offset + 1, Endian.little);
+      case _LIST:
+      case _MAP:
+        return offset + 9 + _data.getInt32(offset + 1, Endian.little);
+    }
+    throw FormatException("unknown value tag at " + offset.toString());
+  }
+}
+
+class _LazyBinaryMap extends MapBase<String, dynamic> {
+  final BinaryResultsDecoder _decoder;
+  final Map<String, int> _offsets = {};
+  final Map<String, dynamic> _values = {};
+
+  _LazyBinaryMap(this._decoder, int offset) {
+    var count = _decoder._data.getInt32(offset + 5, Endian.little);
+    var position = offset + 9;
+    for (var i = 0; i < count; i++) {
+      var key = _decoder._readString(position);
+      position += 4 + _decoder._data.getInt32(position, Endian.little);
+      _offsets[key] = position;
+      position = _decoder._skipValue(position);
+    }
+  }
+
+  @override
+  dynamic operator [](Object? key) {
+    if (_values.containsKey(key)) return _values[key];
+    var offset = _offsets[key];
+    if (offset == null) return null;
+    return _values[key as String] = _decoder._readValue(offset);
+  }
+
+  @override
+  void operator []=(String key, value) {
+    _offsets.remove(key);
+    _values[key] = value;
+  }
+
+  @override
+  Iterable<String> get keys => LinkedHashSet<String>.from(_offsets.keys)..addAll(_values.keys);
+
+  @override
+  dynamic remove(Object? key) {
+    var value = this[key];
+    _offsets.remove(key);
+    _values.remove(key);
+    return value;
+  }
+
+  @override
+  void clear() {
+    _offsets.clear();
+    _values.clear();
+  }
+}
+
+/// A reusable video frame buffer, leased with [DocumentReader.leaseFrameBuffer].
+/// Fill [frame] and pass the buffer to [DocumentReader.recognizeFrameBuffer],
+/// it returns to the pool once the frame has been handed over.
+class FrameBuffer {
+  static const int _headerLength = 12;
+
+  final int width;
+  final int height;
+  final int type;
+  final ByteData _message;
+  late final Uint8List frame;
+
+  FrameBuffer._(this.width, this.height, this.type, int byteLength) : _message = ByteData(_headerLength + byteLength) {
+    _message.setInt32(0, width, Endian.little);
+    _message.setInt32(4, height, Endian.little);
+    _message.setInt32(8, type, Endian.little);
+    frame = _message.buffer.asUint8List(_headerLength, byteLength);
+  }
+}
+
 class DocumentReader {
   static const MethodChannel _channel = const MethodChannel('flutter_document_reader_api/method');
+  static const EventChannel _completionChannel = const EventChannel('flutter_document_reader_api/event/completion');
+  static StreamController<DocumentReaderCompletion?> _completions = StreamController.broadcast();
+  static StreamSubscription? _completionSubscription;
+  static Map<String, Completer<DocumentReaderCompletion>> _requests = {};
+  static int _requestCounter = 0;
+  static const BasicMessageChannel<ByteData> _frameChannel = const BasicMessageChannel('flutter_document_reader_api/frame', BinaryCodec());
+  static const int _maxFrameBuffersPerSize = 4;
+  static Map<String, List<FrameBuffer>> _frameBuffers = {};
+
+  /// All completions, including the ones of the *ForCompletion calls.
+  /// The completion event channel supports a single listener, so use this stream
+  /// instead of listening to the channel directly when the *ForCompletion calls are used.
+  static Stream<DocumentReaderCompletion?> get completionStream {
+    _listenCompletions();
+    return _completions.stream;
+  }
+
+  static void _listenCompletions() {
+    if (_completionSubscription != null) return;
+    _completionSubscription = _completionChannel.receiveBroadcastStream().listen((event) {
+      var completion = DocumentReaderCompletion.fromEvent(event);
+      var requestId = completion?.requestId;
+      if (requestId != null && _isFinalAction(completion!.action))
+        _requests.remove(requestId)?.complete(completion);
+      _completions.add(completion);
+    });
+  }
+
+  static bool _isFinalAction(int? action) {
+    return action == DocReaderAction.COMPLETE || action == DocReaderAction.CANCEL || action == DocReaderAction.ERROR || action == DocReaderAction.TIMEOUT;
+  }
+
+  /// Invokes [method] with a request id, the returned future completes with the final completion of that call.
+  static Future<DocumentReaderCompletion> _request(String method, List arguments) {
+    _listenCompletions();
+    var requestId = "${++_requestCounter}";
+    var completer = new Completer<DocumentReaderCompletion>();
+    _requests[requestId] = completer;
+    _channel.invokeMethod("withRequestId", [requestId, method, arguments]).catchError((error) {
+      _requests.remove(requestId)?.completeError(error);
+    });
+    return completer.future;
+  }
+
+  static Future<DocumentReaderCompletion> showScannerForCompletion({ String? profile }) {
+    return _request("showScanner", [profile]);
+  }
+
+  static Future<DocumentReaderCompletion> showScannerWithCameraIDAndOptsForCompletion(cameraID, options) {
+    return _request("showScannerWithCameraIDAndOpts", [cameraID, options]);
+  }
+
+  static Future<DocumentReaderCompletion> recognizeImageForCompletion(image, { ImageDecodingPolicy? decodingPolicy, String? profile }) {
+    return _request("recognizeImage", [image, decodingPolicy?.toJson(), profile]);
+  }
+
+  static Future<DocumentReaderCompletion> recognizeImageWithOptsForCompletion(image, options, { ImageDecodingPolicy? decodingPolicy }) {
+    return _request("recognizeImageWithOpts", [image, options, decodingPolicy?.toJson()]);
+  }
+
+  static Future<DocumentReaderCompletion> recognizeImagesForCompletion(images, { ImageDecodingPolicy? decodingPolicy }) {
+    return _request("recognizeImages", [images, decodingPolicy?.toJson()]);
+  }
+
+  static Future<DocumentReaderCompletion> recognizeImagesWithImageInputsForCompletion(images, { ImageDecodingPolicy? decodingPolicy }) {
+    return _request("recognizeImagesWithImageInputs", [images, decodingPolicy?.toJson()]);
+  }
+
+  static Future<DocumentReaderCompletion> recognizeVideoFrameForCompletion(byteString, params) {
+    return _request("recognizeVideoFrame", [byteString, params]);
+  }
+
+  /// [byteLength] defaults to the size of a YUV 4:2:0 frame such as NV21.
+  static FrameBuffer leaseFrameBuffer(int width, int height, int type, { int? byteLength }) {
+    var length = byteLength ?? width * height * 3 ~/ 2;
+    var pool = _frameBuffers["${width}_${height}_${type}_$length"];
+    if (pool != null && pool.isNotEmpty) return pool.removeLast();
+    return FrameBuffer._(width, height, type, length);
+  }
+
+  /// Recognizes the frame in [buffer], or submits it to the frame stream if one is started.
+  /// Results are delivered through the completion stream.
+  static Future<void> recognizeFrameBuffer(FrameBuffer buffer) async {
+    try {
+      await _frameChannel.send(buffer._message);
+    } finally {
+      var pool = _frameBuffers.putIfAbsent("${buffer.width}_${buffer.height}_${buffer.type}_${buffer.frame.length}", () => []);
+      if (pool.length < _maxFrameBuffersPerSize) pool.add(buffer);
+    }
+  }
 
   static Future<dynamic> initializeReaderAutomatically() async {
     return await _channel.invokeMethod("initializeReaderAutomatically", []);
@@ -7158,8 +7755,9 @@ class DocumentReader {
     return await _channel.invokeMethod("getDatabaseDescription", []);
   }
 
-  static Future<dynamic> showScanner() async {
-    return await _channel.invokeMethod("showScanner", []);
+  /// [profile] names a profile from [registerConfigProfile] to apply first.
+  static Future<dynamic> showScanner({ String? profile }) async {
+    return await _channel.invokeMethod("showScanner", [profile]);
   }
 
   static Future<dynamic> startNewPage() async {
@@ -7198,6 +7796,23 @@ class DocumentReader {
     return await _channel.invokeMethod("getConfig", []);
   }
 
+  /// Checks [options] (same shape as [setConfig]) and keeps them natively under [name].
+  static Future<dynamic> registerConfigProfile(String name, options) async {
+    return await _channel.invokeMethod("registerConfigProfile", [name, options]);
+  }
+
+  /// Applies a registered profile. Only keys whose values differ from the current config are set.
+  static Future<dynamic> applyConfigProfile(String name) async {
+    return await _channel.invokeMethod("applyConfigProfile", [name]);
+  }
+
+  /// Reads only the given [sections] ("customization", "functionality", "processParams") and [keys],
+  /// all of them when omitted. Values come back as a map keyed by section, without going through a JSON string.
+  static Future<Map<String, dynamic>> getConfigValues({ List<String>? sections, List<String>? keys }) async {
+    Map<dynamic, dynamic> result = await _channel.invokeMethod("getConfigValues", [sections, keys]);
+    return result.map((section, values) => MapEntry(section as String, Map<String, dynamic>.from(values)));
+  }
+
   static Future<dynamic> getRfidScenario() async {
     return await _channel.invokeMethod("getRfidScenario", []);
   }
@@ -7262,8 +7877,9 @@ class DocumentReader {
     return await _channel.invokeMethod("getScenario", [scenario]);
   }
 
-  static Future<dynamic> recognizeImages(images) async {
-    return await _channel.invokeMethod("recognizeImages", [images]);
+  /// [images] may contain base64 strings or [Uint8List]s with encoded image bytes.
+  static Future<dynamic> recognizeImages(images, { ImageDecodingPolicy? decodingPolicy }) async {
+    return await _channel.invokeMethod("recognizeImages", [images, decodingPolicy?.toJson()]);
   }
 
   static Future<dynamic> showScannerWithCameraID(cameraID) async {
@@ -7290,8 +7906,10 @@ class DocumentReader {
     return await _channel.invokeMethod("prepareDatabase", [databaseType]);
   }
 
-  static Future<dynamic> recognizeImage(image) async {
-    return await _channel.invokeMethod("recognizeImage", [image]);
+  /// [image] is a base64 string or a [Uint8List] with encoded image bytes.
+  /// [profile] names a profile from [registerConfigProfile] to apply first.
+  static Future<dynamic> recognizeImage(image, { ImageDecodingPolicy? decodingPolicy, String? profile }) async {
+    return await _channel.invokeMethod("recognizeImage", [image, decodingPolicy?.toJson(), profile]);
   }
 
   static Future<dynamic> setRfidSessionStatus(status) async {
@@ -7318,18 +7936,103 @@ class DocumentReader {
     return await _channel.invokeMethod("setTCCParams", [params]);
   }
 
+  static Future<dynamic> setCompletionFormat(format) async {
+    return await _channel.invokeMethod("setCompletionFormat", [format]);
+  }
+
+  static Future<dynamic> setGraphicImageMode(mode) async {
+    return await _channel.invokeMethod("setGraphicImageMode", [mode]);
+  }
+
+  static Future<dynamic> setResultProjection(ResultProjection projection) async {
+    return await _channel.invokeMethod("setResultProjection", [projection.toJson()]);
+  }
+
+  static Future<dynamic> setDeltaResults(bool enabled) async {
+    return await _channel.invokeMethod("setDeltaResults", [enabled]);
+  }
+
+  static Future<dynamic> getGraphicFieldImage(int fieldType, { int source = -1, int light = -1, int pageIndex = -1 }) async {
+    return await _channel.invokeMethod("getGraphicFieldImage", [fieldType, source, light, pageIndex]);
+  }
+
   static Future<dynamic> initializeReaderWithDatabase(license, db) async {
     return await _channel.invokeMethod("initializeReaderWithDatabase", [license, db]);
   }
 
-  static Future<dynamic> recognizeImageWithOpts(image, options) async {
-    return await _channel.invokeMethod("recognizeImageWithOpts", [image, options]);
+  static Future<dynamic> recognizeImageWithOpts(image, options, { ImageDecodingPolicy? decodingPolicy }) async {
+    return await _channel.invokeMethod("recognizeImageWithOpts", [image, options, decodingPolicy?.toJson()]);
   }
 
+  /// [byteString] should be a [Uint8List] with the raw frame, it is passed to the core without re-encoding.
+  /// Strings are still accepted for backward compatibility.
   static Future<dynamic> recognizeVideoFrame(byteString, params) async {
     return await _channel.invokeMethod("recognizeVideoFrame", [byteString, params]);
   }
 
+  /// Returns json with calls, averageMs and maxMs spent in each native method handler,
+  /// and replies and averageReplyMs measured until the result was sent.
+  static Future<dynamic> getMethodTimings() async {
+    return await _channel.invokeMethod("getMethodTimings", []);
+  }
+
+  static Future<dynamic> resetMethodTimings() async {
+    return await _channel.invokeMethod("resetMethodTimings", []);
+  }
+
+  /// Stores the job on disk and returns its id. Jobs survive app restarts and run after [startBatchJobs].
+  static Future<dynamic> enqueueBatchJob(BatchJob job) async {
+    return await _channel.invokeMethod("enqueueBatchJob", [job.toJson()]);
+  }
+
+  static Future<dynamic> startBatchJobs() async {
+    return await _channel.invokeMethod("startBatchJobs", []);
+  }
+
+  /// The job that is running is finished, the rest stay queued.
+  static Future<dynamic> stopBatchJobs() async {
+    return await _channel.invokeMethod("stopBatchJobs", []);
+  }
+
+  /// Runs [calls] in one platform channel round trip and returns their results in the same order.
+  /// Methods that report only through [completionStream], such as showScanner or recognizeImage, aren't run and get an error result.
+  static Future<List<BatchedCallResult>> invokeBatch(List<BatchedCall> calls) async {
+    List<dynamic> results = await _channel.invokeMethod("invokeBatch", [calls.map((call) => call.toJson()).toList()]);
+    return results.map((item) => BatchedCallResult.fromJson(item)!).toList();
+  }
+
+  static Future<dynamic> getBatchJobs() async {
+    return await _channel.invokeMethod("getBatchJobs", []);
+  }
+
+  /// Returns the stored json with jobId, completion, error and elapsedTime, or null if the job hasn't finished.
+  static Future<dynamic> getBatchJobResult(String jobId) async {
+    return await _channel.invokeMethod("getBatchJobResult", [jobId]);
+  }
+
+  static Future<dynamic> removeBatchJob(String jobId) async {
+    return await _channel.invokeMethod("removeBatchJob", [jobId]);
+  }
+
+  /// [params] takes width, height and type like [recognizeVideoFrame] and an optional maxInFlight (1 by default).
+  /// Results are delivered through the completion stream.
+  static Future<dynamic> startFrameStream(params) async {
+    return await _channel.invokeMethod("startFrameStream", [params]);
+  }
+
+  /// Frames submitted while the core is busy replace each other, only the latest one is recognized.
+  static Future<dynamic> submitFrame(Uint8List frame) async {
+    return await _channel.invokeMethod("submitFrame", [frame]);
+  }
+
+  static Future<dynamic> stopFrameStream() async {
+    return await _channel.invokeMethod("stopFrameStream", []);
+  }
+
+  static Future<dynamic> getFrameStreamStats() async {
+    return await _channel.invokeMethod("getFrameStreamStats", []);
+  }
+
   static Future<dynamic> showScannerWithCameraIDAndOpts(cameraID, options) async {
     return await _channel.invokeMethod("showScannerWithCameraIDAndOpts", [cameraID, options]);
   }
@@ -7338,7 +8041,7 @@ class DocumentReader {
     return await _channel.invokeMethod("recognizeImageWithCameraMode", [image, mode]);
   }
 
-  static Future<dynamic> recognizeImagesWithImageInputs(images) async {
-    return await _channel.invokeMethod("recognizeImagesWithImageInputs", [images]);
+  static Future<dynamic> recognizeImagesWithImageInputs(images, { ImageDecodingPolicy? decodingPolicy }) async {
+    return await _channel.invokeMethod("recognizeImagesWithImageInputs", [images, decodingPolicy?.toJson()]);
   }
 }
\ No newline at end of file
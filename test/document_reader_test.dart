@@ -1,5 +1,76 @@
+import 'dart:convert';
+import 'dart:io';
+import 'dart:typed_data';
+
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
+import 'package:flutter_document_reader_api/document_reader.dart';
+
+// Writes values in the layout of BinaryResultsEncoder.java: a version byte, then tagged little-endian values.
+// Lists and maps carry their byte length and item count, map keys are untagged length-prefixed utf8.
+// Written by BinaryResultsEncoderTest.java, which asserts the encoder still produces these exact bytes.
+Uint8List _goldenCompletion() {
+  var hex = File('test/fixtures/binary_completion.hex').readAsStringSync().trim().split(RegExp(r'\s+'));
+  return Uint8List.fromList(hex.map((item) => int.parse(item, radix: 16)).toList());
+}
+
+class _BinaryWriter {
+  static const int _NULL = 0;
+  static const int _FALSE = 1;
+  static const int _TRUE = 2;
+  static const int _INT = 3;
+  static const int _LONG = 4;
+  static const int _DOUBLE = 5;
+  static const int _STRING = 6;
+  static const int _BYTES = 7;
+  static const int _LIST = 8;
+  static const int _MAP = 9;
+
+  static Uint8List encode(dynamic value, { int version = BinaryResultsDecoder.VERSION }) {
+    return Uint8List.fromList([version]..addAll(_value(value)));
+  }
+
+  static List<int> _value(dynamic value) {
+    if (value == null) return [_NULL];
+    if (value is bool) return [value ? _TRUE : _FALSE];
+    if (value is int) {
+      if (value >= -2147483648 && value <= 2147483647)
+        return [_INT]..addAll(_int32(value));
+      var data = ByteData(8)..setInt64(0, value, Endian.little);
+      return [_LONG]..addAll(data.buffer.asUint8List());
+    }
+    if (value is double) {
+      var data = ByteData(8)..setFloat64(0, value, Endian.little);
+      return [_DOUBLE]..addAll(data.buffer.asUint8List());
+    }
+    if (value is String) return [_STRING]..addAll(_string(value));
+    if (value is Uint8List) return [_BYTES]..addAll(_int32(value.length))..addAll(value);
+    if (value is List) {
+      var items = <int>[];
+      for (var item in value)
+        items.addAll(_value(item));
+      return [_LIST]..addAll(_int32(items.length))..addAll(_int32(value.length))..addAll(items);
+    }
+    if (value is Map) {
+      var entries = <int>[];
+      value.forEach((key, item) {
+        entries.addAll(_string(key));
+        entries.addAll(_value(item));
+      });
+      return [_MAP]..addAll(_int32(entries.length))..addAll(_int32(value.length))..addAll(entries);
+    }
+    throw ArgumentError("can't encode " + value.runtimeType.toString());
+  }
+
+  static List<int> _string(String value) {
+    var bytes = utf8.encode(value);
+    return _int32(bytes.length)..addAll(bytes);
+  }
+
+  static List<int> _int32(int value) {
+    return (ByteData(4)..setInt32(0, value, Endian.little)).buffer.asUint8List().toList();
+  }
+}
 
 void main() {
   const MethodChannel channel = MethodChannel('flutter_document_reader_api/method');
@@ -15,4 +86,166 @@ void main() {
   tearDown(() {
     channel.setMockMethodCallHandler(null);
   });
+
+  group('BinaryResultsDecoder', () {
+    test('decodes the fixture written by the java encoder', () {
+      var decoded = BinaryResultsDecoder.decode(_goldenCompletion());
+
+      expect(decoded.keys.toList(), ["action", "requestId", "results", "delta"]);
+      expect(decoded["action"], 1);
+      expect(decoded["requestId"], "7");
+      expect(decoded["delta"], isTrue);
+      var results = decoded["results"];
+      expect(results["chipPage"], 1);
+      expect(results["elapsedTime"], 1 << 40);
+      expect(results["morePagesAvailable"], isFalse);
+      expect(results.containsKey("rawResult"), isTrue);
+      expect(results["rawResult"], isNull);
+      var field = results["textResult"]["fields"][0];
+      expect(field["fieldType"], 25);
+      expect(field["value"]["value"], "Müller ✓");
+      expect(field["values"][0], isNull);
+      expect(field["values"][1]["value"], "x");
+      var imageBytes = results["graphicResult"]["fields"][0]["imageBytes"];
+      expect(imageBytes, isA<Uint8List>());
+      expect(imageBytes, [0, 1, 2, 250, 255]);
+      expect(results["documentPosition"][0]["angle"], 0.25);
+      expect(results["documentPosition"][0]["center"], isEmpty);
+
+      var completion = DocumentReaderCompletion.fromEvent(_goldenCompletion())!;
+      expect(completion.action, 1);
+      expect(completion.requestId, "7");
+      expect(completion.delta, isTrue);
+      expect(completion.results!.textResult!.fields.first!.value!.value, "Müller ✓");
+      expect(completion.results!.textResult!.fields.first!.values, [null, isNotNull]);
+      expect(completion.results!.graphicResult!.fields.first!.imageBytes, [0, 1, 2, 250, 255]);
+      expect(completion.results!.documentPosition.first!.angle, 0.25);
+    });
+
+    test('test writer matches the java encoder', () {
+      var encoded = _BinaryWriter.encode({
+        "action": 1,
+        "requestId": "7",
+        "results": {
+          "chipPage": 1,
+          "elapsedTime": 1 << 40,
+          "morePagesAvailable": false,
+          "rawResult": null,
+          "textResult": {
+            "status": 1,
+            "fields": [
+              {"fieldType": 25, "value": {"value": "Müller ✓"}, "values": [null, {"value": "x"}]},
+            ],
+          },
+          "graphicResult": {
+            "fields": [
+              {"fieldType": 201, "imageBytes": Uint8List.fromList([0, 1, 2, 250, 255])},
+            ],
+          },
+          "documentPosition": [
+            {"angle": 0.25, "center": {}},
+          ],
+        },
+        "delta": true,
+      });
+
+      expect(encoded, _goldenCompletion());
+    });
+
+    test('decodes scalars', () {
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode(null)), isNull);
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode(true)), isTrue);
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode(false)), isFalse);
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode(-7)), -7);
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode(1 << 40)), 1 << 40);
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode(0.25)), 0.25);
+      expect(BinaryResultsDecoder.decode(_BinaryWriter.encode("Müller ✓")), "Müller ✓");
+    });
+
+    test('round trips nested maps, lists, nulls and bytes', () {
+      var bytes = Uint8List.fromList([0, 1, 2, 250, 255]);
+      var input = {
+        "action": 1,
+        "error": null,
+        "results": {
+          "chipPage": 0,
+          "textResult": {
+            "status": 1,
+            "fields": [
+              {"fieldType": 25, "lcid": 0, "value": "SMITH", "values": []},
+              {"fieldType": 8, "lcid": 0, "value": null, "values": [null, "x"]},
+            ],
+          },
+          "graphicResult": {
+            "fields": [
+              {"fieldType": 201, "imageBytes": bytes},
+            ],
+          },
+        },
+        "empty": {},
+      };
+
+      var decoded = BinaryResultsDecoder.decode(_BinaryWriter.encode(input));
+
+      expect(decoded, isA<Map>());
+      expect(decoded["action"], 1);
+      expect(decoded.containsKey("error"), isTrue);
+      expect(decoded["error"], isNull);
+      expect(decoded["empty"], isEmpty);
+      var fields = decoded["results"]["textResult"]["fields"];
+      expect(fields.length, 2);
+      expect(fields[0]["value"], "SMITH");
+      expect(fields[0]["values"], isEmpty);
+      expect(fields[1]["value"], isNull);
+      expect(fields[1]["values"], [null, "x"]);
+      var imageBytes = decoded["results"]["graphicResult"]["fields"][0]["imageBytes"];
+      expect(imageBytes, isA<Uint8List>());
+      expect(imageBytes, bytes);
+      expect(json.encode(decoded["results"]["textResult"]), json.encode((input["results"] as Map)["textResult"]));
+    });
+
+    test('keeps key order and supports edits on lazy maps', () {
+      var decoded = BinaryResultsDecoder.decode(_BinaryWriter.encode({"b": 1, "a": {"c": 2}, "d": [3]}));
+
+      expect(decoded.keys.toList(), ["b", "a", "d"]);
+      expect(decoded["missing"], isNull);
+      decoded["b"] = "changed";
+      decoded["e"] = 4;
+      expect(decoded["b"], "changed");
+      expect(decoded.remove("a"), {"c": 2});
+      expect(decoded.keys.toList(), ["d", "b", "e"]);
+      expect(decoded["d"], [3]);
+    });
+
+    test('decodes from a view into a larger buffer', () {
+      var encoded = _BinaryWriter.encode({"key": "value"});
+      var padded = Uint8List(encoded.length + 3)..setRange(3, encoded.length + 3, encoded);
+
+      var decoded = BinaryResultsDecoder.decode(Uint8List.view(padded.buffer, 3, encoded.length));
+
+      expect(decoded["key"], "value");
+    });
+
+    test('rejects other format versions', () {
+      expect(() => BinaryResultsDecoder.decode(_BinaryWriter.encode(1, version: BinaryResultsDecoder.VERSION + 1)), throwsFormatException);
+    });
+
+    test('feeds DocumentReaderCompletion.fromEvent', () {
+      var event = _BinaryWriter.encode({
+        "action": DocReaderAction.COMPLETE,
+        "requestId": "7",
+        "results": {"chipPage": 1, "elapsedTime": 1200, "rawResult": "{}"},
+        "error": null,
+      });
+
+      var completion = DocumentReaderCompletion.fromEvent(event)!;
+
+      expect(completion.action, DocReaderAction.COMPLETE);
+      expect(completion.requestId, "7");
+      expect(completion.results!.chipPage, 1);
+      expect(completion.results!.elapsedTime, 1200);
+      expect(completion.results!.rawResult, "{}");
+      expect(completion.error, isNull);
+    });
+  });
 }